@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Measure time from process start until the node reports ready to take traffic
+# (/actuator/health/readiness returns UP, i.e. after the startup warm-up).
+#
+#   scripts/startup-benchmark.sh [runs]
+#
+# Compares the plain jar with the fast-start build from scripts/fast-start.sh.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+URL="http://localhost:$PORT/actuator/health/readiness"
+
+measure() {
+  local label=$1; shift
+  local total=0
+  for i in $(seq 1 "$RUNS"); do
+    local start=$(date +%s%N)
+    "$@" --server.port="$PORT" > /dev/null 2>&1 &
+    local pid=$!
+    until curl -sf "$URL" > /dev/null; do
+      if ! kill -0 "$pid" 2> /dev/null; then
+        echo "$label: process exited before becoming ready" >&2
+        return 1
+      fi
+      sleep 0.05
+    done
+    local elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    total=$((total + elapsed))
+    echo "$label run $i: ${elapsed}ms"
+    kill "$pid"; wait "$pid" 2> /dev/null || true
+  done
+  echo "$label average: $((total / RUNS))ms"
+}
+
+JAR=$(ls target/backend-*.jar | grep -v '\.original$' | head -n 1)
+measure "plain" java -jar "$JAR"
+
+if [ -x target/fast-start/run.sh ]; then
+  measure "fast-start" target/fast-start/run.sh
+else
+  echo "No fast-start build found; run scripts/fast-start.sh first"
+fi
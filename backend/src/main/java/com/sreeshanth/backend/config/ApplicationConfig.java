@@ -1,24 +1,43 @@
 package com.sreeshanth.backend.config;
 
+import com.sreeshanth.backend.model.User;
 import com.sreeshanth.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
 
+    @Value("${security.password.target-millis:250}")
+    private long targetMillis;
+
+    @Value("${security.password.bcrypt-strength:12}")
+    private int bcryptStrength;
+
+    @Value("${security.password.upgrade-below-strength:10}")
+    private int upgradeBelowStrength;
+
+    @Value("${security.password.accept-legacy-plaintext:true}")
+    private boolean acceptLegacyPlaintext;
+
     @Bean
     public UserDetailsService userDetailsService() {
         return username -> userRepository.findByEmail(username)
@@ -26,11 +45,25 @@ public class ApplicationConfig {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
+    /**
+     * Stores re-encoded passwords after a successful login (legacy plaintext or a bcrypt
+     * cost below security.password.upgrade-below-strength).
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newPassword) -> {
+            User user = (User) userDetails;
+            user.setPassword(newPassword);
+            return userRepository.save(user);
+        };
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
 
@@ -39,8 +72,37 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * bcrypt at the configured security.password.bcrypt-strength, which should be the same on
+     * every node; 0 tunes it to take about security.password.target-millis on this host, for
+     * single-node setups. Hashes are stored with a {bcrypt} prefix; unprefixed values are
+     * legacy plaintext, accepted (see {@link LegacyPlaintextPasswordEncoder}) only while
+     * security.password.accept-legacy-plaintext is on, and rehashed on the next login.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return NoOpPasswordEncoder.getInstance();
+        int strength = bcryptStrength > 0 ? bcryptStrength : BCryptCostTuner.tune(targetMillis);
+        System.out.println("✓ Using bcrypt strength " + strength + " for password hashing");
+        return delegatingEncoder(strength, upgradeBelowStrength, acceptLegacyPlaintext);
+    }
+
+    /**
+     * Hashes are only re-encoded on login when their cost is below the fixed floor, never
+     * because another node uses a different strength, so nodes cannot keep rehashing the
+     * same password back and forth.
+     */
+    static PasswordEncoder delegatingEncoder(int strength, int upgradeBelowStrength, boolean acceptLegacyPlaintext) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(strength) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                int stored = BCryptCostTuner.strengthOf(encodedPassword);
+                return stored >= 0 && stored < upgradeBelowStrength;
+            }
+        });
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", encoders);
+        encoder.setDefaultPasswordEncoderForMatches(new LegacyPlaintextPasswordEncoder(acceptLegacyPlaintext));
+        return encoder;
     }
 }
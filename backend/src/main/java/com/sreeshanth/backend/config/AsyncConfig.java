@@ -0,0 +1,176 @@
+package com.sreeshanth.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Pool for concurrent calls to the Air Quality API (e.g. history windows fetched in parallel).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor upstreamExecutor(
+            @Value("${air-quality.upstream.pool-size:16}") int poolSize,
+            @Value("${air-quality.upstream.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("upstream-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool for Spring MVC async work (StreamingResponseBody writes such as /forecast/stream).
+     * Declaring our own executors makes Boot's applicationTaskExecutor back off, which would
+     * leave MVC on an unbounded SimpleAsyncTaskExecutor; WebConfig hands it this one instead.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor(
+            @Value("${web.async.pool-size:16}") int poolSize,
+            @Value("${web.async.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool for background refreshes of expired cache entries. Kept apart from the upstream pool
+     * because a refresh (e.g. a long history) itself waits on upstream-pool tasks.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor cacheRefreshExecutor(
+            @Value("${air-quality.cache.refresh.pool-size:4}") int poolSize,
+            @Value("${air-quality.cache.refresh.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Small, bounded pool for report analysis. Uploads beyond the queue capacity are rejected
+     * instead of piling up; the report is marked failed and can be re-queued later.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor reportAnalysisExecutor(
+            @Value("${reports.analysis.pool-size:2}") int poolSize,
+            @Value("${reports.analysis.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-analysis-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Small, bounded pool for exposure backfills after a profile moves its primary location.
+     * A burst of profile saves waits in the queue; beyond it the backfill is skipped and the
+     * hourly pass catches the account up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exposureExecutor(
+            @Value("${exposure.backfill.pool-size:2}") int poolSize,
+            @Value("${exposure.backfill.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("exposure-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool for password hashing and verification. Sized to the CPU count with a short queue:
+     * during a login storm extra requests are rejected with 503 rather than queueing for
+     * seconds or starving the request threads used by everything else.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${security.password.pool-size:0}") int poolSize,
+            @Value("${security.password.queue-capacity:64}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool for Gemini calls. Bounded so a slow model cannot pile up threads; when it is full,
+     * recommendations come straight from the local engine.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor aiExecutor(
+            @Value("${ai.pool-size:8}") int poolSize,
+            @Value("${ai.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ai-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Scheduler for the per-cell stream pollers only. Ticks only hand work to streamExecutor,
+     * so a small pool is enough; @Scheduled jobs run on jobScheduler (see SchedulingConfig) so
+     * a long job can never delay a tick.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler streamScheduler(@Value("${air-quality.stream.scheduler-pool-size:2}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("stream-scheduler-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * Scheduler for @Scheduled jobs. The precompute and exposure jobs run for minutes; one
+     * thread per job keeps them from holding up each other or the upgrade sweep.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler jobScheduler(@Value("${scheduling.jobs.pool-size:3}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("job-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * Pool for stream polls and SSE sends. Each subscriber has at most one send in flight.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor streamExecutor(
+            @Value("${air-quality.stream.pool-size:8}") int poolSize,
+            @Value("${air-quality.stream.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("stream-");
+        executor.initialize();
+        return executor;
+    }
+}
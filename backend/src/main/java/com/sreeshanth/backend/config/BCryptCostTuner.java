@@ -0,0 +1,48 @@
+package com.sreeshanth.backend.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the bcrypt strength whose single hash takes about the target time on this host.
+ * Each extra round doubles the work, so one timed hash is enough to extrapolate.
+ */
+final class BCryptCostTuner {
+
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+    private static final int PROBE_STRENGTH = 10;
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private BCryptCostTuner() {
+    }
+
+    static int tune(long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(PROBE_STRENGTH);
+        probe.encode("warm-up"); // Let the JIT compile the hot loop before timing it
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-password");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double probeMillis = Math.max(best / 1_000_000.0, 0.001);
+        int strength = PROBE_STRENGTH + (int) Math.floor(Math.log(targetMillis / probeMillis) / Math.log(2));
+        return Math.max(MIN_STRENGTH, Math.min(MAX_STRENGTH, strength));
+    }
+
+    /**
+     * Cost of a bcrypt hash ("$2a$12$..." is 12), or -1 when the value is not one.
+     */
+    static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_HASH.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+}
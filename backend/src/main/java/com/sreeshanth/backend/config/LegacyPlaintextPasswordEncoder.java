@@ -0,0 +1,49 @@
+package com.sreeshanth.backend.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Matches passwords stored before hashing was introduced, so those users can still log in once
+ * and have the password rehashed. Only unprefixed values that are not bcrypt hashes count as
+ * legacy; they are compared in constant time. Once every legacy account has been migrated,
+ * set security.password.accept-legacy-plaintext=false and they are rejected.
+ */
+final class LegacyPlaintextPasswordEncoder implements PasswordEncoder {
+
+    private final boolean enabled;
+
+    LegacyPlaintextPasswordEncoder(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    static boolean isLegacy(String storedPassword) {
+        return storedPassword != null && !storedPassword.startsWith("{")
+                && BCryptCostTuner.strengthOf(storedPassword) < 0;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        throw new UnsupportedOperationException("Legacy passwords are only matched, never stored");
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String storedPassword) {
+        if (!enabled || rawPassword == null || !isLegacy(storedPassword)) {
+            return false;
+        }
+        boolean matches = MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                storedPassword.getBytes(StandardCharsets.UTF_8));
+        if (matches) {
+            System.out.println("⚠️ Accepted a legacy plaintext password; rehashing it with bcrypt");
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String storedPassword) {
+        return true;
+    }
+}
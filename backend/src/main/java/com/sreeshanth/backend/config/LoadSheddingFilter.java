@@ -0,0 +1,131 @@
+package com.sreeshanth.backend.config;
+
+import com.sreeshanth.backend.service.ConcurrencyLimiter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Caps how many requests each upstream-bound feature may have in flight, so a slow Google or
+ * Gemini only degrades its own endpoints. Air-quality and AI endpoints each get an adaptive
+ * {@link ConcurrencyLimiter}; a request over its group's limit is answered immediately with
+ * 503 and Retry-After instead of taking a Tomcat thread. Everything else (auth, map config,
+ * users) is never limited. Runs before Spring Security, so shed requests cost no JWT or
+ * Mongo work.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final int retryAfterSeconds;
+    private final List<Group> groups;
+
+    public LoadSheddingFilter(
+            @Value("${load-shedding.enabled:true}") boolean enabled,
+            @Value("${load-shedding.retry-after-seconds:2}") int retryAfterSeconds,
+            @Value("${load-shedding.tolerance:1.5}") double tolerance,
+            @Value("${load-shedding.air-quality.initial-limit:20}") int airQualityInitial,
+            @Value("${load-shedding.air-quality.max-limit:80}") int airQualityMax,
+            @Value("${load-shedding.ai.initial-limit:10}") int aiInitial,
+            @Value("${load-shedding.ai.max-limit:40}") int aiMax,
+            @Value("${load-shedding.min-limit:4}") int minLimit) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.groups = List.of(
+                // The SSE stream is long-lived by design and already bounded by its own pool
+                new Group("/api/air-quality/", List.of("/api/air-quality/stream"),
+                        new ConcurrencyLimiter("air-quality", airQualityInitial, minLimit, airQualityMax, tolerance)),
+                new Group("/api/ai/", List.of(),
+                        new ConcurrencyLimiter("ai", aiInitial, minLimit, aiMax, tolerance)));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        ConcurrencyLimiter limiter = enabled && !"OPTIONS".equals(request.getMethod())
+                ? limiterFor(request.getRequestURI())
+                : null;
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            reject(response, limiter);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // CompletableFuture and streaming handlers finish after this thread returns
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(permit));
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private ConcurrencyLimiter limiterFor(String path) {
+        for (Group group : groups) {
+            if (path.startsWith(group.prefix()) && group.excluded().stream().noneMatch(path::startsWith)) {
+                return group.limiter();
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, ConcurrencyLimiter limiter) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        // Controllers allow any origin; mirror that so the browser can read the rejection
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Expose-Headers", "Retry-After");
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"The " + limiter.name()
+                + " service is busy. Please try again shortly.\"}");
+    }
+
+    private record Group(String prefix, List<String> excluded, ConcurrencyLimiter limiter) {
+    }
+
+    private record ReleaseOnCompletion(ConcurrencyLimiter.Permit permit) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.sreeshanth.backend.config;
+
+import com.sreeshanth.backend.model.CachedResponse;
+import com.sreeshanth.backend.model.DailyRecommendation;
+import com.sreeshanth.backend.model.ReportAnalysis;
+import com.sreeshanth.backend.model.SavedPlace;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on these documents (TTL, 2dsphere, lookup). Automatic index
+ * creation stays off so the older User.phone unique index is not built over existing data
+ * that may not satisfy it. Runs in the background after startup, so a slow or unreachable
+ * Mongo only costs a warning.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final List<Class<?>> INDEXED = List.of(
+            CachedResponse.class, DailyRecommendation.class, ReportAnalysis.class, SavedPlace.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        Thread.ofVirtual().name("mongo-indexes").start(() -> {
+            IndexResolver resolver = IndexResolver.create(
+                    (MongoMappingContext) mongoTemplate.getConverter().getMappingContext());
+            for (Class<?> type : INDEXED) {
+                try {
+                    IndexOperations indexOps = mongoTemplate.indexOps(type);
+                    resolver.resolveIndexFor(type).forEach(indexOps::createIndex);
+                } catch (Exception e) {
+                    System.err.println("⚠️ Could not create indexes for " + type.getSimpleName() + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -1,14 +1,26 @@
 package com.sreeshanth.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
-    
+
+    @Value("${air-quality.upstream.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${air-quality.upstream.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        // Without timeouts a hung upstream holds the calling thread (and the circuit breaker's trial) forever
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        return new RestTemplate(requestFactory);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.sreeshanth.backend.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Runs @Scheduled jobs on jobScheduler instead of whichever TaskScheduler bean Spring would
+ * pick by default, which was the stream pollers' scheduler.
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    private final ThreadPoolTaskScheduler jobScheduler;
+
+    public SchedulingConfig(@Qualifier("jobScheduler") ThreadPoolTaskScheduler jobScheduler) {
+        this.jobScheduler = jobScheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.setTaskScheduler(jobScheduler);
+    }
+}
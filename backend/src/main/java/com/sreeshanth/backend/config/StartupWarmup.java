@@ -0,0 +1,181 @@
+package com.sreeshanth.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.service.AirQualityCache;
+import com.sreeshanth.backend.service.AqiIndexes;
+import com.sreeshanth.backend.service.JwtService;
+import com.sreeshanth.backend.service.LocalRecommendationEngine;
+import com.sreeshanth.backend.service.ReverseGeocoder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the hot request paths a few hundred times before the node reports ready. Application
+ * runners finish before Spring Boot flips readiness to ACCEPTING_TRAFFIC, so the load balancer
+ * only sends traffic once JWT handling, Jackson and the local engines are JIT-compiled and the
+ * hottest cache cells are in the near-cache.
+ *
+ * Two paths are also driven over loopback HTTP: the upstream RestTemplate posts a lookup to a
+ * local stub that answers like the Air Quality API, and authenticated requests go through this
+ * node's own Tomcat, security filter chain (JwtAuthFilter, user lookup) and MVC stack.
+ */
+@Component
+@RequiredArgsConstructor
+public class StartupWarmup implements ApplicationRunner {
+
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final AirQualityCache airQualityCache;
+    private final LocalRecommendationEngine localRecommendationEngine;
+    private final ReverseGeocoder reverseGeocoder;
+    private final RestTemplate restTemplate;
+    private final Environment environment;
+
+    @Value("${startup.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${startup.warmup.iterations:300}")
+    private int iterations;
+
+    @Value("${startup.warmup.preload-cells:500}")
+    private int preloadCells;
+
+    // Shaped like a currentConditions:lookup response
+    private static final String SAMPLE_CONDITIONS = """
+            {"dateTime":"2025-01-01T00:00:00Z","regionCode":"in",
+             "indexes":[{"code":"uaqi","displayName":"Universal AQI","aqi":42,"category":"Moderate air quality","dominantPollutant":"pm25"},
+                        {"code":"ind_cpcb","displayName":"AQI (IN)","aqi":155,"category":"Moderate air quality","dominantPollutant":"pm25"}],
+             "pollutants":[{"code":"pm25","displayName":"PM2.5","concentration":{"value":61.2,"units":"MICROGRAMS_PER_CUBIC_METER"}}]}
+            """;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+
+        User user = new User();
+        user.setPhone("0000000000");
+        user.setMedicalConditions("asthma");
+
+        for (int i = 0; i < iterations; i++) {
+            try {
+                String token = jwtService.generateToken(user);
+                jwtService.isTokenValid(token, user);
+
+                Map<String, Object> conditions = objectMapper.readValue(SAMPLE_CONDITIONS, Map.class);
+                objectMapper.writeValueAsBytes(conditions);
+
+                AqiIndexes.preferred((List<?>) conditions.get("indexes"));
+                localRecommendationEngine.recommend(user, conditions);
+                reverseGeocoder.nearest(17.385 + i * 0.001, 78.4867);
+            } catch (Exception e) {
+                System.err.println("⚠️ Warm-up step failed: " + e.getMessage());
+                break;
+            }
+        }
+
+        int upstreamCalls = warmUpstreamClient();
+        int requests = warmRequestPath(user);
+
+        int preloaded = 0;
+        try {
+            preloaded = airQualityCache.preload(preloadCells);
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not preload cache cells: " + e.getMessage());
+        }
+
+        System.out.println("✓ Warm-up finished in " + (System.currentTimeMillis() - start) + "ms, "
+                + upstreamCalls + " stub upstream calls, " + requests + " loopback requests, "
+                + preloaded + " cache cells preloaded (JVM uptime "
+                + ManagementFactory.getRuntimeMXBean().getUptime() + "ms)");
+    }
+
+    /**
+     * Post lookups through the shared RestTemplate (request factory, JSON converters) exactly as
+     * AirQualityService does, against a loopback stub so no quota is spent.
+     */
+    private int warmUpstreamClient() {
+        HttpServer stub;
+        try {
+            stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not start upstream stub: " + e.getMessage());
+            return 0;
+        }
+        byte[] sample = SAMPLE_CONDITIONS.getBytes(StandardCharsets.UTF_8);
+        stub.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, sample.length);
+            exchange.getResponseBody().write(sample);
+            exchange.close();
+        });
+        stub.start();
+
+        String url = "http://127.0.0.1:" + stub.getAddress().getPort() + "/v1/currentConditions:lookup?key=warmup";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Content-Type", "application/json");
+        int calls = 0;
+        try {
+            for (; calls < iterations; calls++) {
+                Map<String, Object> body = Map.of(
+                        "location", Map.of("latitude", 17.385 + calls * 0.001, "longitude", 78.4867),
+                        "extraComputations", List.of("HEALTH_RECOMMENDATIONS", "POLLUTANT_CONCENTRATION", "LOCAL_AQI"),
+                        "languageCode", "en");
+                restTemplate.postForEntity(url, new HttpEntity<>(body, headers), Map.class);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Upstream client warm-up stopped: " + e.getMessage());
+        } finally {
+            stub.stop(0);
+        }
+        return calls;
+    }
+
+    /**
+     * Send bearer-token requests to this node's own reverse-geocode endpoint. The warm-up user
+     * does not exist, so the JWT filter parses and checks the token, looks the user up and then
+     * serves the permitted endpoint anonymously.
+     */
+    private int warmRequestPath(User user) {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            return 0; // No embedded server (e.g. tests)
+        }
+
+        String url = "http://127.0.0.1:" + port + "/api/map/geocode/reverse";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(jwtService.generateToken(user));
+        int requests = 0;
+        try {
+            for (; requests < iterations; requests++) {
+                Map<String, Object> body = Map.of("latitude", 17.385 + requests * 0.001, "longitude", 78.4867);
+                restTemplate.postForEntity(url, new HttpEntity<>(body, headers), Map.class);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Request path warm-up stopped: " + e.getMessage());
+        }
+        return requests;
+    }
+}
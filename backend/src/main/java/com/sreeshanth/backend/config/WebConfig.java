@@ -0,0 +1,75 @@
+package com.sreeshanth.backend.config;
+
+import com.sreeshanth.backend.service.SeriesEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor mvcAsyncExecutor;
+
+    public WebConfig(@Qualifier("mvcAsyncExecutor") ThreadPoolTaskExecutor mvcAsyncExecutor) {
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
+    }
+
+    /**
+     * Run async request work on a bounded pool rather than a new thread per request.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+    }
+
+    /**
+     * Added after the JSON converter, so responses stay JSON unless the client explicitly
+     * accepts the compact series format.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new SeriesMessageConverter());
+    }
+
+    /**
+     * Writes only {@link SeriesEncoder.Series} bodies, so error bodies and every other map
+     * response fall through to JSON even when the client prefers the series format.
+     */
+    static class SeriesMessageConverter extends AbstractHttpMessageConverter<SeriesEncoder.Series> {
+
+        SeriesMessageConverter() {
+            super(MediaType.parseMediaType(SeriesEncoder.MEDIA_TYPE));
+        }
+
+        @Override
+        protected boolean supports(Class<?> clazz) {
+            return SeriesEncoder.Series.class.isAssignableFrom(clazz);
+        }
+
+        @Override
+        protected boolean canRead(MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        protected SeriesEncoder.Series readInternal(Class<? extends SeriesEncoder.Series> clazz, HttpInputMessage inputMessage) {
+            throw new HttpMessageNotReadableException("The series format is response-only", inputMessage);
+        }
+
+        @Override
+        protected void writeInternal(SeriesEncoder.Series response, HttpOutputMessage outputMessage) throws IOException {
+            SeriesEncoder.write(response, outputMessage.getBody());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.sreeshanth.backend.controller;
+
+import com.sreeshanth.backend.service.SavedPlaceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Area queries over every user's primary and saved locations (e.g. who to alert about a
+ * pollution event). Exposes other users' places, so every call needs the X-Admin-Key header to
+ * match admin.api-key; with no key configured the endpoints are closed.
+ */
+@RestController
+@RequestMapping("/api/admin/places")
+@RequiredArgsConstructor
+public class AdminPlacesController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final SavedPlaceService savedPlaceService;
+
+    @Value("${admin.api-key:}")
+    private String adminApiKey;
+
+    /**
+     * Places within radiusKm of a point, nearest first
+     */
+    @GetMapping("/near")
+    public ResponseEntity<?> near(@RequestHeader(value = "X-Admin-Key", required = false) String key,
+                                  @RequestParam double latitude, @RequestParam double longitude,
+                                  @RequestParam(defaultValue = "5") double radiusKm,
+                                  @RequestParam(defaultValue = "100") int limit) {
+        if (!authorized(key)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin key required"));
+        }
+        try {
+            return ResponseEntity.ok(savedPlaceService.near(latitude, longitude, radiusKm, clamp(limit)));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Places inside a bounding box
+     */
+    @GetMapping("/within")
+    public ResponseEntity<?> within(@RequestHeader(value = "X-Admin-Key", required = false) String key,
+                                    @RequestParam double south, @RequestParam double west,
+                                    @RequestParam double north, @RequestParam double east,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        if (!authorized(key)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin key required"));
+        }
+        if (south >= north || west >= east) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Expected south < north and west < east"));
+        }
+        try {
+            return ResponseEntity.ok(savedPlaceService.within(south, west, north, east, clamp(limit)));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Ids of users with any place within radiusKm of a point; "truncated" is true when the
+     * limit was reached
+     */
+    @GetMapping("/users-near")
+    public ResponseEntity<?> usersNear(@RequestHeader(value = "X-Admin-Key", required = false) String key,
+                                       @RequestParam double latitude, @RequestParam double longitude,
+                                       @RequestParam(defaultValue = "5") double radiusKm,
+                                       @RequestParam(defaultValue = "1000") int limit) {
+        if (!authorized(key)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin key required"));
+        }
+        try {
+            int capped = clamp(limit);
+            List<String> userIds = savedPlaceService.usersNear(latitude, longitude, radiusKm, capped);
+            return ResponseEntity.ok(Map.of("count", userIds.size(), "userIds", userIds,
+                    "truncated", userIds.size() == capped));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private boolean authorized(String key) {
+        return adminApiKey != null && !adminApiKey.isBlank() && key != null
+                && MessageDigest.isEqual(adminApiKey.getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -1,8 +1,7 @@
 package com.sreeshanth.backend.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sreeshanth.backend.model.User;
-import com.sreeshanth.backend.service.AiService;
+import com.sreeshanth.backend.service.RecommendationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -16,9 +15,13 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AiController {
 
-    private final AiService aiService;
-    private final ObjectMapper objectMapper;
+    private final RecommendationService recommendationService;
 
+    /**
+     * Personalized recommendations. Answers within the configured latency budget: from Gemini
+     * when it is fast enough, otherwise from the local rule engine ("source": "local"). The body
+     * is the current conditions payload plus the "location" ({latitude, longitude}) it is for.
+     */
     @PostMapping("/recommendations")
     public ResponseEntity<?> getAiRecommendations(
             @AuthenticationPrincipal User user,
@@ -31,14 +34,26 @@ public class AiController {
         }
 
         try {
-            String jsonResponse = aiService.getPersonalizedHealthRecommendations(user, airQualityData);
-            // Sanitize and parse the JSON response from the AI
-            String sanitizedJson = jsonResponse.replaceAll("```json", "").replaceAll("```", "").trim();
-            Map<String, String> recommendations = objectMapper.readValue(sanitizedJson, Map.class);
-            return ResponseEntity.ok(recommendations);
+            return ResponseEntity.ok(recommendationService.recommend(user, airQualityData));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body(Map.of("error", "Failed to generate AI recommendations."));
         }
     }
+
+    /**
+     * Gemini's answer for a request that was served locally because Gemini missed the budget
+     * ("upgradePending": true), for the same latitude/longitude as that request's "location".
+     * Returns 204 until it is available.
+     */
+    @GetMapping("/recommendations/latest")
+    public ResponseEntity<?> getLatestRecommendations(@AuthenticationPrincipal User user,
+                                                      @RequestParam(required = false) Double latitude,
+                                                      @RequestParam(required = false) Double longitude) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated."));
+        }
+        Map<String, Object> latest = recommendationService.latest(user, latitude, longitude);
+        return latest != null ? ResponseEntity.ok(latest) : ResponseEntity.noContent().build();
+    }
 }
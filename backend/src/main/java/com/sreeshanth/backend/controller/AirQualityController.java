@@ -1,32 +1,42 @@
 package com.sreeshanth.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sreeshanth.backend.service.AirQualityService;
+import com.sreeshanth.backend.service.AirQualityStreamService;
+import com.sreeshanth.backend.service.AqiIndexes;
+import com.sreeshanth.backend.service.AqiInterpolationService;
+import com.sreeshanth.backend.service.SeriesEncoder;
+import com.sreeshanth.backend.service.UpstreamUnavailableException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.text.SimpleDateFormat;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/air-quality")
 @CrossOrigin(origins = "*")
 public class AirQualityController {
 
-    @Value("${google.maps.api.key}")
-    private String apiKey;
+    @Autowired
+    private AirQualityService airQualityService;
+
+    @Autowired
+    private AirQualityStreamService airQualityStreamService;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private AqiInterpolationService aqiInterpolationService;
 
-    private static final String BASE_URL = "https://airquality.googleapis.com/v1";
+    @Autowired
+    private ObjectMapper objectMapper;
 
     /**
      * Fetch current air quality conditions for a specific location
@@ -34,57 +44,55 @@ public class AirQualityController {
     @PostMapping("/current")
     public ResponseEntity<?> getCurrentConditions(@RequestBody LocationRequest locationRequest) {
         try {
-            String url = BASE_URL + "/currentConditions:lookup?key=" + apiKey;
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("location", locationRequest.getLocation());
-            body.put("extraComputations", Arrays.asList(
-                "HEALTH_RECOMMENDATIONS",
-                "POLLUTANT_CONCENTRATION",
-                "POLLUTANT_ADDITIONAL_INFO",
-                "DOMINANT_POLLUTANT_CONCENTRATION",
-                "LOCAL_AQI"
-            ));
-            body.put("languageCode", "en");
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/json");
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-            return ResponseEntity.ok(response.getBody());
+            return ResponseEntity.ok(airQualityService.getCurrentConditions(locationRequest.getLocation()));
+        } catch (UpstreamUnavailableException e) {
+            return unavailable(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
 
+    /**
+     * Estimate current conditions at a point from nearby cached cells (map browsing). Falls back
+     * to an upstream lookup when the neighbours are too sparse or stale; estimates carry
+     * "interpolated": true and an "interpolation" block with the confidence.
+     */
+    @PostMapping("/current/estimate")
+    public ResponseEntity<?> estimateCurrentConditions(@RequestBody LocationRequest locationRequest) {
+        try {
+            return ResponseEntity.ok(aqiInterpolationService.estimate(locationRequest.getLocation()));
+        } catch (UpstreamUnavailableException e) {
+            return unavailable(e);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
 
     /**
-     * Fetch historical air quality data
+     * Live current conditions for a location as Server-Sent Events ("conditions" events).
+     * All viewers of the same grid cell share one upstream poller.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCurrentConditions(@RequestParam double latitude, @RequestParam double longitude) {
+        return airQualityStreamService.subscribe(latitude, longitude);
+    }
+
+    /**
+     * Fetch historical air quality data. When maxPoints is set, long ranges are downsampled
+     * to that many points before responding. Clients accepting
+     * application/vnd.breathesmart.aq-series get the compact columnar encoding (SeriesEncoder).
      */
     @PostMapping("/history")
     public ResponseEntity<?> getHistoricalData(@RequestBody HistoryRequest historyRequest) {
         try {
-            String url = BASE_URL + "/history:lookup?key=" + apiKey;
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("location", historyRequest.getLocation());
-            body.put("hours", historyRequest.getHours() != null ? historyRequest.getHours() : 24);
-            body.put("extraComputations", Arrays.asList(
-                "HEALTH_RECOMMENDATIONS",
-                "POLLUTANT_CONCENTRATION",
-                "DOMINANT_POLLUTANT_CONCENTRATION",
-                "LOCAL_AQI"
-            ));
-            body.put("languageCode", "en");
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/json");
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-            return ResponseEntity.ok(response.getBody());
-
+            int hours = historyRequest.getHours() != null ? historyRequest.getHours() : 24;
+            if (historyRequest.getMaxPoints() != null) {
+                return ResponseEntity.ok(new SeriesEncoder.Series(airQualityService.getHistoricalData(
+                        historyRequest.getLocation(), hours, historyRequest.getMaxPoints())));
+            }
+            return ResponseEntity.ok(new SeriesEncoder.Series(airQualityService.getHistoricalData(historyRequest.getLocation(), hours)));
+        } catch (UpstreamUnavailableException e) {
+            return unavailable(e);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
@@ -92,49 +100,14 @@ public class AirQualityController {
 
 
     /**
-     * Fetch a 24-hour air quality forecast for a line chart.
-     * This is based on our curl command and requests a specific 24-hour period.
+     * Fetch an air quality forecast for a line chart. Defaults to the next 24 hours; hours
+     * extends the horizon up to 96. Also available in the compact series encoding.
      */
     @PostMapping("/forecast")
-    public ResponseEntity<?> getForecastData(@RequestBody LocationRequest locationRequest) {
+    public ResponseEntity<?> getForecastData(@RequestBody ForecastRequest forecastRequest) {
         try {
-            String url = BASE_URL + "/forecast:lookup?key=" + apiKey;
-            
-            // --- Start of changes based on the 24-hour curl command ---
-            
-            // 1. Calculate the 24-hour time period dynamically
-            // Get the current time and round UP to the next full hour in UTC
-            Instant startTime = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
-            // Set the end time to exactly 24 hours after the start time
-            Instant endTime = startTime.plus(24, ChronoUnit.HOURS);
-
-            // 2. Build the request body
-            Map<String, Object> body = new HashMap<>();
-            body.put("location", locationRequest.getLocation());
-            
-            // 3. Add the specific time period
-            // Instant.toString() is already in the correct UTC (Z) format
-            Map<String, String> period = new HashMap<>();
-            period.put("startTime", startTime.toString()); 
-            period.put("endTime", endTime.toString());
-            body.put("period", period);
-            
-            // 4. Set pageSize to 24 to get all hours in one response
-            body.put("pageSize", 24);
-            
-            // 5. No 'extraComputations' are added, per your request
-            // The API includes the 'indexes' (AQI data) by default.
-            
-            // --- End of changes ---
-            
-            System.out.println("📤 Sending 24-hour forecast request with body: " + body);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/json");
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-            
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-            Map<String, Object> responseBody = response.getBody();
+            int hours = forecastRequest.getHours() != null ? forecastRequest.getHours() : 24;
+            Map<String, Object> responseBody = airQualityService.getForecastData(forecastRequest.getLocation(), hours);
             
             System.out.println("📥 Forecast response received: " + (responseBody != null ? "OK" : "NULL"));
             
@@ -147,12 +120,14 @@ public class AirQualityController {
                     if (responseBody.containsKey("regionCode")) {
                         response_data.put("regionCode", responseBody.get("regionCode"));
                     }
-                    if (responseBody.containsKey("nextPageToken")) {
-                        response_data.put("nextPageToken", responseBody.get("nextPageToken"));
+                    if (responseBody.containsKey("stale")) {
+                        response_data.put("stale", true);
+                        response_data.put("fetchedAt", responseBody.get("fetchedAt"));
+                        response_data.put("ageSeconds", responseBody.get("ageSeconds"));
                     }
                     
                     System.out.println("✓ Successfully fetched " + forecasts.size() + " hours of forecast data");
-                    return ResponseEntity.ok(response_data);
+                    return ResponseEntity.ok(new SeriesEncoder.Series(response_data));
                 } else {
                     System.out.println("⚠️ Response has hourlyForecasts key but list is empty or null");
                 }
@@ -162,14 +137,65 @@ public class AirQualityController {
             }
             
             // If no forecasts, return empty
-            return ResponseEntity.ok(Map.of("hourlyForecasts", new ArrayList<>()));
+            return ResponseEntity.ok(new SeriesEncoder.Series(Map.of("hourlyForecasts", new ArrayList<>())));
             
+        } catch (UpstreamUnavailableException e) {
+            return unavailable(e);
         } catch (Exception e) {
             System.err.println("❌ Forecast fetch error: " + e.getMessage());
             e.printStackTrace();
             return ResponseEntity.status(500).body(Map.of("error", "Failed to fetch forecast: " + e.getMessage()));
         }
     }
+    /**
+     * Stream a multi-day forecast as NDJSON, one hourly forecast per line. All 24-hour windows
+     * are fetched concurrently and each is written as soon as it (and every earlier window) is
+     * ready, so the first day can render while later days are still loading. A window served
+     * from a stale cache copy is preceded by a {"stale": true, "fetchedAt", "ageSeconds"} line.
+     */
+    @PostMapping(value = "/forecast/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamForecastData(@RequestBody ForecastRequest forecastRequest) {
+        int hours = forecastRequest.getHours() != null ? forecastRequest.getHours() : AirQualityService.MAX_FORECAST_HOURS;
+        List<CompletableFuture<Map<String, Object>>> windows =
+                airQualityService.getForecastWindows(forecastRequest.getLocation(), hours);
+
+        StreamingResponseBody stream = outputStream -> {
+            try {
+                for (CompletableFuture<Map<String, Object>> window : windows) {
+                    Map<String, Object> payload = window.join();
+                    List<Map<String, Object>> forecasts = (List<Map<String, Object>>) payload.get("hourlyForecasts");
+                    if (forecasts == null) {
+                        continue;
+                    }
+                    if (Boolean.TRUE.equals(payload.get("stale"))) {
+                        Map<String, Object> marker = new LinkedHashMap<>();
+                        marker.put("stale", true);
+                        marker.put("fetchedAt", payload.get("fetchedAt"));
+                        marker.put("ageSeconds", payload.get("ageSeconds"));
+                        outputStream.write(objectMapper.writeValueAsBytes(marker));
+                        outputStream.write('\n');
+                    }
+                    for (Map<String, Object> forecast : forecasts) {
+                        outputStream.write(objectMapper.writeValueAsBytes(forecast));
+                        outputStream.write('\n');
+                    }
+                    outputStream.flush();
+                }
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                System.err.println("❌ Forecast stream error: " + cause.getMessage());
+                outputStream.write(objectMapper.writeValueAsBytes(
+                        Map.of("error", "Failed to fetch forecast: " + cause.getMessage())));
+                outputStream.write('\n');
+                windows.forEach(window -> window.cancel(false));
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(stream);
+    }
+
     /**
      * Fetch forecast air quality data - uses API's default forecast window
   
@@ -184,34 +210,20 @@ public class AirQualityController {
                 return ResponseEntity.ok(Map.of("aqi", null));
             }
 
-            // Find Indian National AQI first
-            for (Object idx : indexes) {
-                Map<String, Object> index = (Map<String, Object>) idx;
-                String code = (String) index.get("code");
-                
-                if ("ind_cpcb".equals(code)) {
-                    return ResponseEntity.ok(index);
-                }
-            }
-
-            // Fall back to universal AQI
-            for (Object idx : indexes) {
-                Map<String, Object> index = (Map<String, Object>) idx;
-                String code = (String) index.get("code");
-                
-                if ("uaqi".equals(code)) {
-                    return ResponseEntity.ok(index);
-                }
-            }
-
-            // Return first available
-            return ResponseEntity.ok(indexes.get(0));
+            // Indian National AQI first, then universal AQI, then first available
+            return ResponseEntity.ok(AqiIndexes.preferred(indexes));
 
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
 
+    private static ResponseEntity<?> unavailable(UpstreamUnavailableException e) {
+        return ResponseEntity.status(503)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
     /**
      * Helper method to build forecast request body - NO LONGER USED
      * Keeping for reference only
@@ -254,10 +266,18 @@ public class AirQualityController {
         private Map<String, Double> location;
     }
 
+    @Data
+    @NoArgsConstructor
+    public static class ForecastRequest {
+        private Map<String, Double> location;
+        private Integer hours; // Forecast horizon, capped at 96
+    }
+
     @Data
     @NoArgsConstructor
     public static class HistoryRequest {
         private Map<String, Double> location;
-        private Integer hours;
+        private Integer hours; // History range, capped at 720
+        private Integer maxPoints; // Optional chart pixel budget
     }
 }
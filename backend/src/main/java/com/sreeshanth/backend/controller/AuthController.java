@@ -3,15 +3,17 @@ package com.sreeshanth.backend.controller;
 import com.sreeshanth.backend.model.User;
 import com.sreeshanth.backend.repository.UserRepository;
 import com.sreeshanth.backend.service.JwtService;
+import com.sreeshanth.backend.service.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -20,33 +22,66 @@ import java.util.Map;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
 
     @PostMapping("/signup")
-    public ResponseEntity<?> signup(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> signup(@RequestBody User user) {
         if (userRepository.findByPhone(user.getPhone()).isPresent()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Phone number is already registered."));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Phone number is already registered.")));
+        }
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("message", "Password is required.")));
+        }
+        try {
+            return passwordHashingService.encode(user.getPassword())
+                    .<ResponseEntity<?>>thenApply(encoded -> {
+                        user.setPassword(encoded);
+                        User savedUser = userRepository.save(user);
+                        savedUser.setPassword(null); // Don't send password back
+                        return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
+                    });
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.completedFuture(busy());
         }
-        User savedUser = userRepository.save(user);
-        savedUser.setPassword(null); // Don't send password back
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
     }
 
+    /**
+     * Verification runs on the password hashing pool; the request thread is released while
+     * it waits. Requests beyond the pool's queue are shed with 503 and Retry-After.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> credentials) {
         String identifier = credentials.get("identifier");
         String password = credentials.get("password");
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(identifier, password)
-        );
+        try {
+            return passwordHashingService.authenticate(identifier, password)
+                    .<ResponseEntity<?>>thenApply(authentication -> {
+                        User user = (User) authentication.getPrincipal();
+                        String jwt = jwtService.generateToken(user);
 
-        User user = (User) authentication.getPrincipal();
-        String jwt = jwtService.generateToken(user);
+                        user.setPassword(null); // Don't include password in the response
 
-        user.setPassword(null); // Don't include password in the response
+                        return ResponseEntity.ok(Map.of("token", jwt, "user", user));
+                    })
+                    .exceptionally(e -> {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof AuthenticationException) {
+                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid credentials."));
+                        }
+                        return ResponseEntity.status(500).body(Map.of("message", "Login failed."));
+                    });
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
+    }
 
-        return ResponseEntity.ok(Map.of("token", jwt, "user", user));
+    private ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(Map.of("message", "Too many login attempts right now, please try again shortly."));
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.sreeshanth.backend.controller;
 
+import com.sreeshanth.backend.service.ReverseGeocoder;
+import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import java.util.*;
@@ -7,8 +9,11 @@ import java.util.*;
 @RestController
 @RequestMapping("/api/map")
 @CrossOrigin(origins = "*")
+@RequiredArgsConstructor
 public class MapController {
 
+    private final ReverseGeocoder reverseGeocoder;
+
     /**
      * Get map initialization config
      */
@@ -52,15 +57,23 @@ public class MapController {
     @PostMapping("/geocode/reverse")
     public ResponseEntity<?> reverseGeocode(@RequestBody GeocodeRequest request) {
         try {
-            // This would call Google Maps Geocoding API from backend
-            // For now, return a placeholder
-            String locationName = String.format("Location (%.4f, %.4f)", 
-                request.getLatitude(), request.getLongitude());
+            // Resolved locally from the gazetteer; without one, fall back to the coordinates
+            ReverseGeocoder.Place place = reverseGeocoder.nearest(request.getLatitude(), request.getLongitude());
+            if (place == null) {
+                String locationName = String.format("Location (%.4f, %.4f)", 
+                    request.getLatitude(), request.getLongitude());
+                return ResponseEntity.ok(Map.of(
+                    "latitude", request.getLatitude(),
+                    "longitude", request.getLongitude(),
+                    "locationName", locationName
+                ));
+            }
             
             return ResponseEntity.ok(Map.of(
                 "latitude", request.getLatitude(),
                 "longitude", request.getLongitude(),
-                "locationName", locationName
+                "locationName", place.name(),
+                "distanceKm", Math.round(place.distanceKm() * 10) / 10.0
             ));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -0,0 +1,127 @@
+package com.sreeshanth.backend.controller;
+
+import com.sreeshanth.backend.model.ReportAnalysis;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.service.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final ReportService reportService;
+
+    /**
+     * Upload a report. The file is streamed into GridFS and analysis is queued; poll
+     * GET /api/reports/{id} for the result.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadReport(@AuthenticationPrincipal User user, @RequestParam("file") MultipartFile file) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated."));
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "File is empty."));
+        }
+
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "report";
+        String contentType = file.getContentType() != null ? file.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        try (InputStream content = file.getInputStream()) {
+            ReportAnalysis report = reportService.upload(user, content, fileName, contentType);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to upload report."));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getReports(@AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated."));
+        }
+        return ResponseEntity.ok(reportService.findAll(user));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getReport(@AuthenticationPrincipal User user, @PathVariable String id) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated."));
+        }
+        return reportService.find(user, id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stream the original file back from GridFS.
+     */
+    @GetMapping("/{id}/file")
+    public ResponseEntity<?> downloadReport(@AuthenticationPrincipal User user, @PathVariable String id) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated."));
+        }
+        ReportAnalysis report = reportService.find(user, id).orElse(null);
+        GridFsResource resource = report != null ? reportService.openFile(report) : null;
+        if (resource == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(report.getContentType()))
+                    .contentLength(report.getSize())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.inline().filename(report.getFileName()).build().toString())
+                    .body(new InputStreamResource(resource.getInputStream()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Re-queue analysis, e.g. after a failure or when the queue was full. Answers 409 while the
+     * report is still pending or being analyzed.
+     */
+    @PostMapping("/{id}/analyze")
+    public ResponseEntity<?> reanalyzeReport(@AuthenticationPrincipal User user, @PathVariable String id) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated."));
+        }
+        ReportAnalysis report = reportService.find(user, id).orElse(null);
+        if (report == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return reportService.reanalyze(report)
+                .<ResponseEntity<?>>map(queued -> ResponseEntity.status(HttpStatus.ACCEPTED).body(queued))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Report is already being analyzed.")));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteReport(@AuthenticationPrincipal User user, @PathVariable String id) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated."));
+        }
+        ReportAnalysis report = reportService.find(user, id).orElse(null);
+        if (report == null) {
+            return ResponseEntity.notFound().build();
+        }
+        reportService.delete(user, report);
+        return ResponseEntity.noContent().build();
+    }
+}
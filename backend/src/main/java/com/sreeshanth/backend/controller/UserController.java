@@ -3,6 +3,9 @@ package com.sreeshanth.backend.controller;
 import com.sreeshanth.backend.model.Location;
 import com.sreeshanth.backend.model.User;
 import com.sreeshanth.backend.repository.UserRepository;
+import com.sreeshanth.backend.model.ExposureAccount;
+import com.sreeshanth.backend.service.ExposureService;
+import com.sreeshanth.backend.service.SavedPlaceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -10,6 +13,8 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -20,11 +25,18 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SavedPlaceService savedPlaceService;
+
+    @Autowired
+    private ExposureService exposureService;
+
     // Existing PUT for full user update (unchanged)
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable String id, @RequestBody User updatedUserData) {
         return userRepository.findById(id)
             .map(existingUser -> {
+                Location previousPrimary = existingUser.getPrimaryLocation();
                 // Update only the fields that can be changed in the profile
                 existingUser.setName(updatedUserData.getName());
                 existingUser.setEmail(updatedUserData.getEmail());
@@ -39,12 +51,29 @@ public class UserController {
                 existingUser.setPastReports(updatedUserData.getPastReports());
 
                 User savedUser = userRepository.save(existingUser);
+                savedPlaceService.sync(savedUser);
+                if (!sameCoordinates(previousPrimary, savedUser.getPrimaryLocation())) {
+                    exposureService.accumulateInBackground(savedUser); // Backfills the new location
+                }
                 savedUser.setPassword(null); // Ensure password is not sent back
                 return ResponseEntity.ok(savedUser);
             })
             .orElse(ResponseEntity.notFound().build());
     }
 
+    // Cumulative pollutant exposure at the primary location (one document read)
+    @GetMapping("/{id}/exposure")
+    public ResponseEntity<?> getExposure(@AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        ExposureAccount account = exposureService.get(user.getId());
+        if (account == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(account);
+    }
+
     // New: Add a saved location
     @PostMapping("/{id}/saved-locations")
     public ResponseEntity<?> addSavedLocation(@AuthenticationPrincipal User user, @RequestBody Location newLocation) {
@@ -60,6 +89,7 @@ public class UserController {
         newLocation.setDateAdded(Instant.now().toString()); // Auto-set dateAdded
         user.getSavedLocations().add(newLocation);
         userRepository.save(user);
+        savedPlaceService.sync(user);
         return ResponseEntity.ok(user.getSavedLocations());
     }
 
@@ -72,6 +102,20 @@ public class UserController {
         return ResponseEntity.ok(user.getSavedLocations());
     }
 
+    // Closest of the user's saved (or primary) locations to a point, via the geo index
+    @GetMapping("/{id}/saved-locations/nearest")
+    public ResponseEntity<?> getNearestSavedLocation(@AuthenticationPrincipal User user,
+                                                     @RequestParam double latitude, @RequestParam double longitude) {
+        if (user == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        Map<String, Object> nearest = savedPlaceService.nearestForUser(user.getId(), latitude, longitude);
+        if (nearest == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(nearest);
+    }
+
     // New: Update a saved location by name
     @PutMapping("/{id}/saved-locations/{locationName}")
     public ResponseEntity<?> updateSavedLocation(@AuthenticationPrincipal User user, @PathVariable String locationName, @RequestBody Location updatedLocation) {
@@ -91,6 +135,7 @@ public class UserController {
         loc.setLongitude(updatedLocation.getLongitude());
         // dateAdded remains unchanged
         userRepository.save(user);
+        savedPlaceService.sync(user);
         return ResponseEntity.ok(user.getSavedLocations());
     }
 
@@ -105,6 +150,14 @@ public class UserController {
             return ResponseEntity.notFound().build();
         }
         userRepository.save(user);
+        savedPlaceService.sync(user);
         return ResponseEntity.ok(user.getSavedLocations());
     }
-}
\ No newline at end of file
+
+    private static boolean sameCoordinates(Location a, Location b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return Objects.equals(a.getLatitude(), b.getLatitude()) && Objects.equals(a.getLongitude(), b.getLongitude());
+    }
+}
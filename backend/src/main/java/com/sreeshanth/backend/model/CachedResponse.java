@@ -0,0 +1,31 @@
+package com.sreeshanth.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Shared (L2) copy of an upstream air-quality response, keyed by request kind and grid cell.
+ * The copy is fresh until expiresAt and is kept (for stale serving) until retainUntil, when
+ * Mongo removes the document.
+ */
+@Document(collection = "air_quality_cache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedResponse {
+    @Id
+    private String key;
+    private Map<String, Object> payload;
+    private long version; // Stamp compared by every node's near-cache
+    private Date fetchedAt;
+    private Date expiresAt;
+    @Indexed(expireAfter = "0s")
+    private Date retainUntil;
+}
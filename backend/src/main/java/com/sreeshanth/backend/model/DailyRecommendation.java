@@ -0,0 +1,31 @@
+package com.sreeshanth.backend.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Recommendation generated off-peak for one user's primary location, keyed by user id. It is
+ * used until validUntil for requests in the same grid cell, as long as the live air quality is
+ * no worse than the severity it was written for.
+ */
+@Document(collection = "daily_recommendations")
+@Data
+@NoArgsConstructor
+public class DailyRecommendation {
+    @Id
+    private String userId;
+    private String primary;
+    private String secondary;
+    private String source; // "ai" or "local" when the batch call failed
+    private int severity; // Worst forecast hour in the validity window
+    private String cell; // GridCell key of the primary location
+    private String profileSignature;
+    private Date generatedAt;
+    @Indexed(expireAfter = "0s")
+    private Date validUntil;
+}
@@ -0,0 +1,51 @@
+package com.sreeshanth.backend.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running pollutant exposure at one user's primary location, keyed by user id. Each hourly
+ * reading is folded in once (hours up to lastHour are already counted) into rolling daily and
+ * weekly totals, so reading the dashboard is a single small document.
+ */
+@Document(collection = "exposure_accounts")
+@Data
+@NoArgsConstructor
+public class ExposureAccount {
+    @Id
+    private String userId;
+    private String cellKey; // Grid cell the totals were accumulated at; a new cell starts over
+    private Date lastHour;
+    private Map<String, String> units = new HashMap<>(); // Pollutant code -> concentration units
+    private List<Period> days = new ArrayList<>(); // Oldest first
+    private List<Period> weeks = new ArrayList<>(); // Weeks start on Monday; oldest first
+    private Date updatedAt;
+
+    public ExposureAccount(String userId, String cellKey) {
+        this.userId = userId;
+        this.cellKey = cellKey;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Period {
+        private String start; // First day of the period, yyyy-MM-dd in the exposure time zone
+        private int hours; // Hours with a reading
+        private Map<String, Double> doses = new HashMap<>(); // Pollutant code -> sum of hourly concentrations (unit x hours)
+        private double aqiSum; // Sum of the preferred AQI over hours that had one
+        private int aqiHours;
+        private int maxAqi;
+
+        public Period(String start) {
+            this.start = start;
+        }
+    }
+}
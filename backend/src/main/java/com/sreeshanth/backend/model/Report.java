@@ -4,11 +4,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * Lightweight reference to an uploaded report, embedded in the user document.
+ * File content lives in GridFS and analysis in the report_analyses collection.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Report {
+    private String id; // ReportAnalysis id
     private String fileName;
     private String uploadDate;
-    private String analysisResult;
+    private String analysisResult; // Legacy inline analysis; new reports keep it in ReportAnalysis
 }
@@ -0,0 +1,34 @@
+package com.sreeshanth.backend.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "report_analyses")
+@Data
+@NoArgsConstructor
+public class ReportAnalysis {
+    @Id
+    private String id;
+    @Indexed
+    private String userId;
+    private String fileId; // GridFS file id
+    private String fileName;
+    private String contentType;
+    private long size;
+    private String uploadDate;
+
+    private Status status;
+    private String summary;
+    private String error;
+    private String analyzedAt;
+
+    public enum Status {
+        PENDING,
+        PROCESSING,
+        COMPLETE,
+        FAILED
+    }
+}
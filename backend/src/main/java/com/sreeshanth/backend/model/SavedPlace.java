@@ -0,0 +1,33 @@
+package com.sreeshanth.backend.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One user's primary or saved location as a GeoJSON point, flattened out of the users
+ * collection so area queries can use a 2dsphere index. The embedded locations on User stay
+ * the source of truth; this collection is rewritten from them whenever they change.
+ */
+@Document(collection = "saved_locations")
+@CompoundIndex(name = "userId_point", def = "{'userId': 1, 'point': '2dsphere'}")
+@Data
+@NoArgsConstructor
+public class SavedPlace {
+    @Id
+    private String id; // userId + ":primary" or userId + ":saved:" + index in savedLocations
+    private String userId;
+    private String kind; // "primary" or "saved"
+    private String name;
+    private String address;
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint point; // x = longitude, y = latitude
+    private Date updatedAt;
+}
@@ -0,0 +1,12 @@
+package com.sreeshanth.backend.repository;
+
+import com.sreeshanth.backend.model.CachedResponse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Date;
+import java.util.List;
+
+public interface CachedResponseRepository extends MongoRepository<CachedResponse, String> {
+    List<CachedResponse> findByExpiresAtAfterOrderByFetchedAtDesc(Date now, Pageable pageable);
+}
@@ -0,0 +1,7 @@
+package com.sreeshanth.backend.repository;
+
+import com.sreeshanth.backend.model.DailyRecommendation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface DailyRecommendationRepository extends MongoRepository<DailyRecommendation, String> {
+}
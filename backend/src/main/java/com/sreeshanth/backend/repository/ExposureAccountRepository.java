@@ -0,0 +1,7 @@
+package com.sreeshanth.backend.repository;
+
+import com.sreeshanth.backend.model.ExposureAccount;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ExposureAccountRepository extends MongoRepository<ExposureAccount, String> {
+}
@@ -0,0 +1,10 @@
+package com.sreeshanth.backend.repository;
+
+import com.sreeshanth.backend.model.ReportAnalysis;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface ReportAnalysisRepository extends MongoRepository<ReportAnalysis, String> {
+    List<ReportAnalysis> findByUserIdOrderByUploadDateDesc(String userId);
+}
@@ -0,0 +1,21 @@
+package com.sreeshanth.backend.repository;
+
+import com.sreeshanth.backend.model.SavedPlace;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoPage;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SavedPlaceRepository extends MongoRepository<SavedPlace, String> {
+    // Nearest first, with distances in the metric of maxDistance
+    GeoPage<SavedPlace> findByPointNear(Point point, Distance maxDistance, Pageable pageable);
+    GeoResults<SavedPlace> findByUserIdAndPointNear(String userId, Point point, Distance maxDistance);
+    List<SavedPlace> findByPointWithin(GeoJsonPolygon polygon, Pageable pageable);
+    void deleteByUserIdAndIdNotIn(String userId, Collection<String> ids);
+}
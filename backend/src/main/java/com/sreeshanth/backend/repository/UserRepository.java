@@ -1,10 +1,22 @@
 package com.sreeshanth.backend.repository;
 
 import com.sreeshanth.backend.model.User;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByPhone(String phone);
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+    Stream<User> findByPrimaryLocationNotNull(); // Cursor-backed; close the stream after use
+
+    // Users with a primary or saved latitude but nothing in saved_locations (userId is the hex _id)
+    @Aggregation(pipeline = {
+            "{ $match: { $or: [ { 'primaryLocation.latitude': { $type: 'number' } }, { 'savedLocations.latitude': { $type: 'number' } } ] } }",
+            "{ $lookup: { from: 'saved_locations', let: { userId: { $toString: '$_id' } }, pipeline: [ { $match: { $expr: { $eq: [ '$userId', '$$userId' ] } } }, { $limit: 1 }, { $project: { _id: 1 } } ], as: 'places' } }",
+            "{ $match: { places: { $size: 0 } } }",
+            "{ $project: { places: 0 } }"
+    })
+    Stream<User> findWithoutSavedPlaces();
+}
@@ -1,12 +1,18 @@
 package com.sreeshanth.backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.genai.Client;
+import com.google.genai.types.Content;
+import com.google.genai.types.File;
 import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.Part;
+import com.google.genai.types.UploadFileConfig;
 import com.sreeshanth.backend.model.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.Period;
 import java.time.format.DateTimeFormatter;
@@ -24,6 +30,15 @@ public class AiService {
     private static final int MAX_RETRIES = 3;
     private static final long INITIAL_BACKOFF_MS = 1000; // 1 second
 
+    /**
+     * Parse the JSON object in a model response, dropping the ```json fences the model
+     * sometimes wraps it in despite the prompt.
+     */
+    static <T> T parseJson(ObjectMapper objectMapper, String response, Class<T> type) throws IOException {
+        String sanitizedJson = response.replaceAll("```json", "").replaceAll("```", "").trim();
+        return objectMapper.readValue(sanitizedJson, type);
+    }
+
     public String getPersonalizedHealthRecommendations(User user, Map<String, Object> airQualityData) throws IOException {
         // Retry logic with exponential backoff
         for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
@@ -76,6 +91,74 @@ public class AiService {
         throw new IOException("Failed to generate recommendations after " + MAX_RETRIES + " attempts");
     }
 
+    /**
+     * Ask for recommendations for several anonymous profile groups in one request. Returns the
+     * raw model text, expected to be a JSON object mapping each group id to an object with
+     * 'primary' and 'secondary' keys. Failures are not retried; the batch job falls back to the
+     * local engine instead of adding load to an overloaded model.
+     */
+    public String getBatchRecommendations(Map<String, String> groupDescriptions) throws IOException {
+        StringBuilder groups = new StringBuilder();
+        groupDescriptions.forEach((id, description) ->
+            groups.append("- ").append(id).append(": ").append(description).append("\n"));
+
+        String prompt =
+            "You are an expert environmental health advisor. Below are anonymous user profile groups, each with the air quality forecast for their area today.\n\n" +
+            groups +
+            "\nTask: For EACH group, write personalized health recommendations for today. " +
+            "Return ONLY a valid JSON object whose keys are the group ids above and whose values are objects with two keys: 'primary' and 'secondary'.\n" +
+            "- 'primary' is the single most important, actionable recommendation for that group.\n" +
+            "- 'secondary' is a useful, but less critical, additional recommendation.\n" +
+            "No extra text or markdown formatting.";
+
+        try {
+            Client client = new Client.Builder()
+                .apiKey(apiKey)
+                .build();
+            GenerateContentResponse response = client.models.generateContent("models/" + modelName, prompt, null);
+            return response.text();
+        } catch (Exception e) {
+            throw new IOException("Failed to generate batch recommendations: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Summarize a medical report file. The file is uploaded to Gemini's Files API from disk
+     * instead of being inlined, so large PDFs are never held in memory.
+     */
+    public String summarizeReport(Path file, String mimeType) throws IOException {
+        Client client = new Client.Builder()
+            .apiKey(apiKey)
+            .build();
+
+        File uploaded = null;
+        try {
+            uploaded = client.files.upload(file.toString(), UploadFileConfig.builder().mimeType(mimeType).build());
+
+            Content content = Content.fromParts(
+                Part.fromUri(uploaded.uri().orElseThrow(), uploaded.mimeType().orElse(mimeType)),
+                Part.fromText(
+                    "You are an expert medical report assistant. Summarize this report for the patient in plain language. " +
+                    "Highlight any findings relevant to respiratory health or sensitivity to air pollution. " +
+                    "Keep it under 200 words and do not use markdown formatting."
+                )
+            );
+
+            GenerateContentResponse response = client.models.generateContent("models/" + modelName, content, null);
+            return response.text();
+        } catch (Exception e) {
+            throw new IOException("Failed to summarize report: " + e.getMessage(), e);
+        } finally {
+            if (uploaded != null && uploaded.name().isPresent()) {
+                try {
+                    client.files.delete(uploaded.name().get(), null);
+                } catch (Exception e) {
+                    // Gemini expires uploaded files on its own after 48 hours
+                }
+            }
+        }
+    }
+
     private String buildPrompt(User user, Map<String, Object> airQualityData) {
         int age = 0;
         if (user.getDob() != null && !user.getDob().isEmpty()) {
@@ -0,0 +1,306 @@
+package com.sreeshanth.backend.service;
+
+import com.sreeshanth.backend.model.CachedResponse;
+import com.sreeshanth.backend.repository.CachedResponseRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Two-level cache for upstream air-quality responses.
+ *
+ * L1 is a size-bounded LRU map inside this node. L2 is the shared air_quality_cache collection,
+ * so a cell fetched by one node is reused by all the others. Each L2 document carries a version
+ * stamp; a near entry is trusted only for a short revalidation window, after which it is checked
+ * against L2 and dropped if the stamp changed or the document is gone (invalidated elsewhere).
+ *
+ * Entries outlive their TTL. For a short while after expiry the old copy is still served at
+ * once while a single background load refreshes it (stale-while-revalidate). After that the
+ * caller waits for upstream, but if upstream fails the last good copy is served instead, up
+ * to stale-if-error-hours after expiry (stale-if-error). Stale copies are marked with
+ * "stale": true, "fetchedAt" and "ageSeconds".
+ */
+@Service
+public class AirQualityCache {
+
+    private final CachedResponseRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final Executor refreshExecutor;
+    private final Duration nearRevalidate;
+    private final Duration staleWhileRevalidate;
+    private final Duration staleIfError;
+    private final Map<String, NearEntry> nearCache;
+    private final Map<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Clock clock;
+
+    @Autowired
+    public AirQualityCache(
+            CachedResponseRepository repository,
+            MongoTemplate mongoTemplate,
+            @Qualifier("cacheRefreshExecutor") Executor refreshExecutor,
+            @Value("${air-quality.cache.near.max-entries:2000}") int nearMaxEntries,
+            @Value("${air-quality.cache.near.revalidate-seconds:30}") long nearRevalidateSeconds,
+            @Value("${air-quality.cache.stale-while-revalidate-minutes:10}") long staleWhileRevalidateMinutes,
+            @Value("${air-quality.cache.stale-if-error-hours:6}") long staleIfErrorHours) {
+        this(repository, mongoTemplate, refreshExecutor, nearMaxEntries, nearRevalidateSeconds,
+                staleWhileRevalidateMinutes, staleIfErrorHours, Clock.systemUTC());
+    }
+
+    AirQualityCache(CachedResponseRepository repository, MongoTemplate mongoTemplate, Executor refreshExecutor,
+                    int nearMaxEntries, long nearRevalidateSeconds, long staleWhileRevalidateMinutes,
+                    long staleIfErrorHours, Clock clock) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.refreshExecutor = refreshExecutor;
+        this.nearRevalidate = Duration.ofSeconds(nearRevalidateSeconds);
+        this.staleWhileRevalidate = Duration.ofMinutes(staleWhileRevalidateMinutes);
+        this.staleIfError = Duration.ofHours(staleIfErrorHours);
+        this.clock = clock;
+        this.nearCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NearEntry> eldest) {
+                return size() > nearMaxEntries;
+            }
+        });
+    }
+
+    /**
+     * Documents used to expire on expiresAt; they are now kept until retainUntil so stale
+     * copies survive upstream outages. If this collection still has the old TTL index, drop it
+     * along with the documents written before retainUntil existed (they would never expire).
+     */
+    @PostConstruct
+    void dropLegacyExpiryIndex() {
+        try {
+            var indexOps = mongoTemplate.indexOps(CachedResponse.class);
+            if (indexOps.getIndexInfo().stream().anyMatch(index -> index.getName().equals("expiresAt"))) {
+                indexOps.dropIndex("expiresAt");
+                mongoTemplate.remove(Query.query(Criteria.where("retainUntil").exists(false)), CachedResponse.class);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not check cache indexes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Return the cached response for key, loading it from upstream at most once per node when
+     * neither level has a usable copy. See the class comment for how expired copies are used.
+     */
+    public Map<String, Object> get(String key, Duration ttl, Supplier<Map<String, Object>> loader) {
+        Instant now = clock.instant();
+
+        NearEntry near = nearCache.get(key);
+        if (near != null && now.isBefore(near.expiresAt()) && now.isBefore(near.checkedAt().plus(nearRevalidate))) {
+            return near.payload();
+        }
+
+        // Best copy known to this node, fresh or not
+        NearEntry known = near;
+        try {
+            CachedResponse shared = repository.findById(key).orElse(null);
+            if (shared != null) {
+                known = near != null && near.version() == shared.getVersion()
+                        ? near.withCheckedAt(now)
+                        : new NearEntry(shared.getPayload(), shared.getVersion(), shared.getFetchedAt().toInstant(),
+                                shared.getExpiresAt().toInstant(), now);
+                nearCache.put(key, known);
+            } else if (near != null) {
+                // Invalidated elsewhere
+                nearCache.remove(key);
+                known = null;
+            }
+        } catch (Exception e) {
+            // Mongo being unavailable should only cost us the shared level, not the request
+            System.err.println("⚠️ Failed to read shared cache entry " + key + ": " + e.getMessage());
+        }
+
+        if (known != null && now.isBefore(known.expiresAt())) {
+            return known.payload();
+        }
+        if (known != null && now.isBefore(known.expiresAt().plus(staleWhileRevalidate))) {
+            refreshInBackground(key, ttl, loader);
+            return stale(known, now);
+        }
+
+        try {
+            return load(key, ttl, loader, true);
+        } catch (RuntimeException e) {
+            if (known != null && now.isBefore(known.expiresAt().plus(staleIfError))) {
+                System.err.println("⚠️ Serving stale " + key + " after upstream failure: " + e.getMessage());
+                return stale(known, now);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Return whatever this node or the shared collection already holds for the given keys,
+     * without loading anything from upstream. Entries may be past their TTL; callers decide
+     * how old is too old from {@link Snapshot#fetchedAt()}.
+     */
+    public Map<String, Snapshot> peekAll(Collection<String> keys) {
+        Map<String, Snapshot> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            NearEntry near = nearCache.get(key);
+            if (near != null) {
+                found.put(key, new Snapshot(near.payload(), near.fetchedAt()));
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            try {
+                for (CachedResponse shared : repository.findAllById(missing)) {
+                    found.put(shared.getKey(), new Snapshot(shared.getPayload(), shared.getFetchedAt().toInstant()));
+                }
+            } catch (Exception e) {
+                System.err.println("⚠️ Failed to read shared cache entries: " + e.getMessage());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Copy the most recently fetched, still valid shared entries into this node's near-cache,
+     * so a freshly started node serves hot cells without a Mongo round trip. Returns the
+     * number of entries loaded.
+     */
+    public int preload(int limit) {
+        Instant now = clock.instant();
+        List<CachedResponse> recent = repository.findByExpiresAtAfterOrderByFetchedAtDesc(
+                Date.from(now), PageRequest.of(0, limit));
+        for (CachedResponse entry : recent) {
+            nearCache.putIfAbsent(entry.getKey(), new NearEntry(entry.getPayload(), entry.getVersion(),
+                    entry.getFetchedAt().toInstant(), entry.getExpiresAt().toInstant(), now));
+        }
+        return recent.size();
+    }
+
+    /**
+     * Drop key from this node and from the shared collection. Other nodes notice the missing
+     * document on their next revalidation.
+     */
+    public void invalidate(String key) {
+        nearCache.remove(key);
+        try {
+            repository.deleteById(key);
+        } catch (Exception e) {
+            System.err.println("⚠️ Failed to invalidate shared cache entry " + key + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue one refresh per key; further stale hits while it is queued or running add nothing.
+     */
+    private void refreshInBackground(String key, Duration ttl, Supplier<Map<String, Object>> loader) {
+        if (inFlight.containsKey(key) || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, ttl, loader, false);
+                } catch (RuntimeException e) {
+                    System.err.println("⚠️ Background refresh of " + key + " failed: " + e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool is saturated; the next request after expiry will try again
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Load key from upstream unless a load is already running on this node, in which case wait
+     * for it (or, for background refreshes, leave it to finish on its own).
+     */
+    private Map<String, Object> load(String key, Duration ttl, Supplier<Map<String, Object>> loader, boolean waitForOthers) {
+        CompletableFuture<Map<String, Object>> mine = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            if (!waitForOthers) {
+                return null;
+            }
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            Map<String, Object> payload = loader.get();
+            if (payload != null) {
+                store(key, payload, ttl);
+            }
+            mine.complete(payload);
+            return payload;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Map<String, Object> stale(NearEntry entry, Instant now) {
+        Map<String, Object> marked = new HashMap<>(entry.payload());
+        marked.put("stale", true);
+        marked.put("fetchedAt", entry.fetchedAt().toString());
+        marked.put("ageSeconds", Duration.between(entry.fetchedAt(), now).toSeconds());
+        return marked;
+    }
+
+    private void store(String key, Map<String, Object> payload, Duration ttl) {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(ttl);
+        long version = now.toEpochMilli();
+
+        nearCache.put(key, new NearEntry(payload, version, now, expiresAt, now));
+        try {
+            repository.save(new CachedResponse(key, payload, version, Date.from(now), Date.from(expiresAt),
+                    Date.from(expiresAt.plus(staleIfError))));
+        } catch (Exception e) {
+            System.err.println("⚠️ Failed to write shared cache entry " + key + ": " + e.getMessage());
+        }
+    }
+
+    public record Snapshot(Map<String, Object> payload, Instant fetchedAt) {
+    }
+
+    private record NearEntry(Map<String, Object> payload, long version, Instant fetchedAt, Instant expiresAt,
+                             Instant checkedAt) {
+        NearEntry withCheckedAt(Instant checkedAt) {
+            return new NearEntry(payload, version, fetchedAt, expiresAt, checkedAt);
+        }
+    }
+}
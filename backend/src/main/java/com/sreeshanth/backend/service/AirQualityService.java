@@ -0,0 +1,345 @@
+package com.sreeshanth.backend.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Calls the Google Air Quality API. Responses are shared per grid cell through
+ * {@link AirQualityCache}, so repeated requests from the same area (on any node) reuse one
+ * upstream call. A circuit breaker stops calling the API while it keeps failing; the cache
+ * then serves the last good copy where it has one.
+ */
+@Service
+public class AirQualityService {
+
+    private static final String BASE_URL = "https://airquality.googleapis.com/v1";
+    private static final int HISTORY_PAGE_SIZE = 168; // Upstream maximum page size for history:lookup
+    private static final int FORECAST_WINDOW_HOURS = 24;
+    public static final int MAX_FORECAST_HOURS = 96; // Upstream forecast horizon
+    public static final int MAX_HISTORY_HOURS = 720; // Upstream history retention (30 days)
+
+    private final RestTemplate restTemplate;
+    private final AirQualityCache cache;
+    private final Executor upstreamExecutor;
+    private final CircuitBreaker circuitBreaker;
+
+    @Value("${google.maps.api.key}")
+    private String apiKey;
+
+    @Value("${air-quality.cache.cell-size-degrees:0.01}")
+    private double cellSize;
+
+    @Value("${air-quality.cache.ttl.current-minutes:10}")
+    private long currentTtlMinutes;
+
+    @Value("${air-quality.cache.ttl.history-minutes:30}")
+    private long historyTtlMinutes;
+
+    @Value("${air-quality.cache.ttl.forecast-minutes:60}")
+    private long forecastTtlMinutes;
+
+    public AirQualityService(RestTemplate restTemplate, AirQualityCache cache,
+                             @Qualifier("upstreamExecutor") Executor upstreamExecutor,
+                             @Value("${air-quality.upstream.breaker.failure-threshold:5}") int breakerFailureThreshold,
+                             @Value("${air-quality.upstream.breaker.open-seconds:30}") long breakerOpenSeconds) {
+        this.restTemplate = restTemplate;
+        this.cache = cache;
+        this.upstreamExecutor = upstreamExecutor;
+        this.circuitBreaker = new CircuitBreaker("Air Quality API", breakerFailureThreshold,
+                Duration.ofSeconds(breakerOpenSeconds));
+    }
+
+    public Map<String, Object> getCurrentConditions(Map<String, Double> location) {
+        String key = "current:" + cellOf(location).key();
+        return cache.get(key, Duration.ofMinutes(currentTtlMinutes), () -> {
+            Map<String, Object> body = new HashMap<>();
+            body.put("location", location);
+            body.put("extraComputations", Arrays.asList(
+                "HEALTH_RECOMMENDATIONS",
+                "POLLUTANT_CONCENTRATION",
+                "POLLUTANT_ADDITIONAL_INFO",
+                "DOMINANT_POLLUTANT_CONCENTRATION",
+                "LOCAL_AQI"
+            ));
+            body.put("languageCode", "en");
+            return post("/currentConditions:lookup", body);
+        });
+    }
+
+    /**
+     * Fetch the last {@code hours} hours of history, clamped to 1..{@link #MAX_HISTORY_HOURS}.
+     * Long ranges are split into windows of at most one upstream page each and fetched
+     * concurrently, then merged in upstream order.
+     */
+    public Map<String, Object> getHistoricalData(Map<String, Double> location, int hours) {
+        int range = historyHours(hours);
+        String key = "history:" + cellOf(location).key() + ":" + range;
+        return cache.get(key, Duration.ofMinutes(historyTtlMinutes), () -> fetchHistory(location, range));
+    }
+
+    /**
+     * Same as {@link #getHistoricalData} but reduced to at most {@code maxPoints} hours with LTTB
+     * on the preferred AQI, so long ranges fit the chart's pixel budget.
+     */
+    public Map<String, Object> getHistoricalData(Map<String, Double> location, int hours, int maxPoints) {
+        Map<String, Object> full = getHistoricalData(location, hours);
+        List<Map<String, Object>> hoursInfo = (List<Map<String, Object>>) full.get("hoursInfo");
+        if (hoursInfo == null || hoursInfo.size() <= maxPoints) {
+            return full;
+        }
+
+        List<Map<String, Object>> withAqi = hoursInfo.stream()
+                .filter(hour -> !Double.isNaN(AqiIndexes.preferredAqi(hour)))
+                .toList();
+
+        Map<String, Object> sampled = new HashMap<>(full);
+        sampled.put("hoursInfo", SeriesDownsampler.lttb(withAqi, AqiIndexes::preferredAqi, maxPoints));
+        sampled.put("totalHours", hoursInfo.size());
+        return sampled;
+    }
+
+    /**
+     * Requested history range limited to what upstream keeps, so a large value cannot fan out
+     * into more windows than the upstream pool can queue.
+     */
+    static int historyHours(int hours) {
+        return Math.max(1, Math.min(hours, MAX_HISTORY_HOURS));
+    }
+
+    private Map<String, Object> fetchHistory(Map<String, Double> location, int hours) {
+        Instant end = Instant.now().truncatedTo(ChronoUnit.HOURS);
+
+        List<CompletableFuture<Map<String, Object>>> windows = new ArrayList<>();
+        for (int offset = 0; offset < hours; offset += HISTORY_PAGE_SIZE) {
+            Instant windowEnd = end.minus(offset, ChronoUnit.HOURS);
+            Instant windowStart = windowEnd.minus(Math.min(HISTORY_PAGE_SIZE, hours - offset), ChronoUnit.HOURS);
+            windows.add(CompletableFuture.supplyAsync(
+                    () -> fetchHistoryWindow(location, windowStart, windowEnd), upstreamExecutor));
+        }
+
+        List<Map<String, Object>> hoursInfo = new ArrayList<>();
+        Object regionCode = null;
+        Boolean descending = null;
+        for (CompletableFuture<Map<String, Object>> window : windows) {
+            List<Map<String, Object>> windowHours = (List<Map<String, Object>>) join(window).get("hoursInfo");
+            if (descending == null && windowHours.size() > 1) {
+                descending = dateTimeOf(windowHours.get(0)).compareTo(dateTimeOf(windowHours.get(windowHours.size() - 1))) > 0;
+            }
+            hoursInfo.addAll(windowHours);
+            if (regionCode == null) {
+                regionCode = join(window).get("regionCode");
+            }
+        }
+
+        // Windows are requested newest first; re-sort so the merged list keeps the upstream direction
+        Comparator<Map<String, Object>> byDateTime = Comparator.comparing(AirQualityService::dateTimeOf);
+        hoursInfo.sort(Boolean.TRUE.equals(descending) ? byDateTime.reversed() : byDateTime);
+
+        Map<String, Object> merged = new HashMap<>();
+        merged.put("hoursInfo", hoursInfo);
+        if (regionCode != null) {
+            merged.put("regionCode", regionCode);
+        }
+        return merged;
+    }
+
+    private Map<String, Object> fetchHistoryWindow(Map<String, Double> location, Instant start, Instant end) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("location", location);
+        body.put("period", Map.of("startTime", start.toString(), "endTime", end.toString()));
+        body.put("pageSize", HISTORY_PAGE_SIZE);
+        body.put("extraComputations", Arrays.asList(
+            "HEALTH_RECOMMENDATIONS",
+            "POLLUTANT_CONCENTRATION",
+            "DOMINANT_POLLUTANT_CONCENTRATION",
+            "LOCAL_AQI"
+        ));
+        body.put("languageCode", "en");
+
+        List<Map<String, Object>> hoursInfo = new ArrayList<>();
+        Map<String, Object> page = post("/history:lookup", body);
+        Object regionCode = page != null ? page.get("regionCode") : null;
+        // A window fits in one page, but follow the token anyway in case the API returns less
+        while (page != null) {
+            if (page.get("hoursInfo") != null) {
+                hoursInfo.addAll((List<Map<String, Object>>) page.get("hoursInfo"));
+            }
+            Object token = page.get("nextPageToken");
+            if (token == null || token.toString().isEmpty()) {
+                break;
+            }
+            body.put("pageToken", token);
+            page = post("/history:lookup", body);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("hoursInfo", hoursInfo);
+        if (regionCode != null) {
+            result.put("regionCode", regionCode);
+        }
+        return result;
+    }
+
+    /**
+     * Fetch the 24-hour forecast starting at the next full hour (UTC).
+     */
+    public Map<String, Object> getForecastData(Map<String, Double> location) {
+        return getForecastData(location, FORECAST_WINDOW_HOURS);
+    }
+
+    /**
+     * Fetch a forecast of up to {@link #MAX_FORECAST_HOURS} hours, merged into one response.
+     */
+    public Map<String, Object> getForecastData(Map<String, Double> location, int hours) {
+        List<Map<String, Object>> hourlyForecasts = new ArrayList<>();
+        Object regionCode = null;
+        Map<String, Object> stalest = null;
+        for (CompletableFuture<Map<String, Object>> window : getForecastWindows(location, hours)) {
+            Map<String, Object> page = join(window);
+            if (page.get("hourlyForecasts") != null) {
+                hourlyForecasts.addAll((List<Map<String, Object>>) page.get("hourlyForecasts"));
+            }
+            if (regionCode == null) {
+                regionCode = page.get("regionCode");
+            }
+            if (Boolean.TRUE.equals(page.get("stale"))
+                    && (stalest == null || ((Number) page.get("ageSeconds")).longValue() > ((Number) stalest.get("ageSeconds")).longValue())) {
+                stalest = page;
+            }
+        }
+
+        Map<String, Object> merged = new HashMap<>();
+        merged.put("hourlyForecasts", hourlyForecasts);
+        if (regionCode != null) {
+            merged.put("regionCode", regionCode);
+        }
+        if (stalest != null) {
+            // Report the oldest window so the marker is never optimistic
+            merged.put("stale", true);
+            merged.put("fetchedAt", stalest.get("fetchedAt"));
+            merged.put("ageSeconds", stalest.get("ageSeconds"));
+        }
+        return merged;
+    }
+
+    /**
+     * Start fetching the forecast as consecutive 24-hour windows, all in flight at once. The
+     * futures are returned in time order so callers can stream each day as soon as it is ready.
+     * Window boundaries are aligned to the next full hour (UTC) and are part of the cache key,
+     * so entries roll over naturally every hour.
+     */
+    public List<CompletableFuture<Map<String, Object>>> getForecastWindows(Map<String, Double> location, int hours) {
+        int horizon = Math.max(1, Math.min(hours, MAX_FORECAST_HOURS));
+        Instant start = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+        String cell = cellOf(location).key();
+
+        List<CompletableFuture<Map<String, Object>>> windows = new ArrayList<>();
+        for (int offset = 0; offset < horizon; offset += FORECAST_WINDOW_HOURS) {
+            Instant windowStart = start.plus(offset, ChronoUnit.HOURS);
+            int span = Math.min(FORECAST_WINDOW_HOURS, horizon - offset);
+            String key = "forecast:" + cell + ":" + windowStart + ":" + span;
+            windows.add(CompletableFuture.supplyAsync(
+                    () -> cache.get(key, Duration.ofMinutes(forecastTtlMinutes),
+                            () -> fetchForecastWindow(location, windowStart, span)),
+                    upstreamExecutor));
+        }
+        return windows;
+    }
+
+    private Map<String, Object> fetchForecastWindow(Map<String, Double> location, Instant start, int span) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("location", location);
+
+        // Instant.toString() is already in the correct UTC (Z) format
+        Map<String, String> period = new HashMap<>();
+        period.put("startTime", start.toString());
+        period.put("endTime", start.plus(span, ChronoUnit.HOURS).toString());
+        body.put("period", period);
+
+        // pageSize equal to the span gets all hours in one response; the API includes 'indexes' by default
+        body.put("pageSize", span);
+
+        System.out.println("📤 Sending " + span + "-hour forecast request with body: " + body);
+
+        List<Map<String, Object>> hourlyForecasts = new ArrayList<>();
+        Map<String, Object> page = post("/forecast:lookup", body);
+        Object regionCode = page != null ? page.get("regionCode") : null;
+        while (page != null) {
+            if (page.get("hourlyForecasts") != null) {
+                hourlyForecasts.addAll((List<Map<String, Object>>) page.get("hourlyForecasts"));
+            }
+            Object token = page.get("nextPageToken");
+            if (token == null || token.toString().isEmpty()) {
+                break;
+            }
+            body.put("pageToken", token);
+            page = post("/forecast:lookup", body);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("hourlyForecasts", hourlyForecasts);
+        if (regionCode != null) {
+            result.put("regionCode", regionCode);
+        }
+        return result;
+    }
+
+    private static String dateTimeOf(Map<String, Object> hour) {
+        return String.valueOf(hour.get("dateTime"));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    private GridCell cellOf(Map<String, Double> location) {
+        return GridCell.of(location.get("latitude"), location.get("longitude"), cellSize);
+    }
+
+    private Map<String, Object> post(String path, Map<String, Object> body) {
+        if (!circuitBreaker.tryAcquire()) {
+            long retryAfter = circuitBreaker.retryAfterSeconds();
+            throw new UpstreamUnavailableException(
+                    "Air Quality API is unavailable, retry in " + retryAfter + "s", retryAfter);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Content-Type", "application/json");
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+
+        try {
+            ResponseEntity<Map> response = restTemplate.postForEntity(BASE_URL + path + "?key=" + apiKey, entity, Map.class);
+            circuitBreaker.onSuccess();
+            return response.getBody();
+        } catch (HttpClientErrorException e) {
+            // A rejected request means the API is up, unless it is rate limiting us
+            if (e.getStatusCode().value() == 429) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.sreeshanth.backend.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live current-conditions push over SSE.
+ *
+ * Subscribers are mapped to grid cells and each active cell has exactly one poller, so the
+ * upstream (and cache) load follows the number of active cells, not open tabs. Every
+ * subscriber has a one-slot mailbox: a slow connection only ever holds the latest reading, and
+ * older ones are dropped instead of queueing. A cell's poller stops when its last subscriber
+ * leaves.
+ */
+@Service
+public class AirQualityStreamService {
+
+    private final AirQualityService airQualityService;
+    private final TaskScheduler scheduler;
+    private final ThreadPoolTaskExecutor streamExecutor;
+    private final Map<String, Cell> cells = new ConcurrentHashMap<>();
+
+    @Value("${air-quality.cache.cell-size-degrees:0.01}")
+    private double cellSize;
+
+    @Value("${air-quality.stream.poll-seconds:300}")
+    private long pollSeconds;
+
+    @Value("${air-quality.stream.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    public AirQualityStreamService(AirQualityService airQualityService,
+                                   @Qualifier("streamScheduler") TaskScheduler scheduler,
+                                   @Qualifier("streamExecutor") ThreadPoolTaskExecutor streamExecutor) {
+        this.airQualityService = airQualityService;
+        this.scheduler = scheduler;
+        this.streamExecutor = streamExecutor;
+    }
+
+    public SseEmitter subscribe(double latitude, double longitude) {
+        GridCell gridCell = GridCell.of(latitude, longitude, cellSize);
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(timeoutMinutes).toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+
+        Cell cell = cells.compute(gridCell.key(), (key, existing) -> {
+            Cell target = existing != null ? existing : new Cell(key, gridCell);
+            target.subscribers.add(subscriber);
+            return target;
+        });
+
+        subscriber.cell = cell;
+        emitter.onCompletion(() -> unsubscribe(cell, subscriber));
+        emitter.onTimeout(() -> unsubscribe(cell, subscriber));
+        emitter.onError(e -> unsubscribe(cell, subscriber));
+
+        Map<String, Object> last = cell.last.get();
+        if (last != null) {
+            subscriber.offer(last);
+        }
+        cell.startIfNeeded();
+        return emitter;
+    }
+
+    public int activeCells() {
+        return cells.size();
+    }
+
+    private void unsubscribe(Cell cell, Subscriber subscriber) {
+        cells.computeIfPresent(cell.key, (key, existing) -> {
+            existing.subscribers.remove(subscriber);
+            if (existing.subscribers.isEmpty()) {
+                existing.stop();
+                return null;
+            }
+            return existing;
+        });
+    }
+
+    private final class Cell {
+        private final String key;
+        private final Map<String, Double> location;
+        private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+        private final AtomicReference<Map<String, Object>> last = new AtomicReference<>();
+        private final AtomicBoolean polling = new AtomicBoolean();
+        private ScheduledFuture<?> task;
+        private boolean stopped;
+
+        private Cell(String key, GridCell gridCell) {
+            this.key = key;
+            this.location = Map.of("latitude", gridCell.centerLatitude(), "longitude", gridCell.centerLongitude());
+        }
+
+        private synchronized void startIfNeeded() {
+            if (task == null && !stopped) {
+                task = scheduler.scheduleWithFixedDelay(this::tick, Duration.ofSeconds(pollSeconds));
+            }
+        }
+
+        private synchronized void stop() {
+            stopped = true;
+            if (task != null) {
+                task.cancel(false);
+                task = null;
+            }
+        }
+
+        /**
+         * Runs on the scheduler; the upstream call itself goes to the stream pool so one slow
+         * cell cannot delay the others. A tick is skipped while the previous poll is running.
+         */
+        private void tick() {
+            if (!polling.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                streamExecutor.execute(this::poll);
+            } catch (TaskRejectedException e) {
+                polling.set(false);
+            }
+        }
+
+        private void poll() {
+            try {
+                Map<String, Object> current = airQualityService.getCurrentConditions(location);
+                Map<String, Object> previous = last.getAndSet(current);
+                boolean changed = previous == null || !Objects.equals(previous.get("dateTime"), current.get("dateTime"));
+                for (Subscriber subscriber : subscribers) {
+                    if (changed) {
+                        subscriber.offer(current);
+                    } else {
+                        subscriber.heartbeat();
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("⚠️ Stream poll failed for cell " + key + ": " + e.getMessage());
+            } finally {
+                polling.set(false);
+            }
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<Map<String, Object>> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile Cell cell;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void fail(Exception e) {
+            emitter.completeWithError(e);
+            if (cell != null) {
+                unsubscribe(cell, this);
+            }
+        }
+
+        /**
+         * Replace whatever is waiting with the newest reading and make sure a drain is running.
+         */
+        private void offer(Map<String, Object> reading) {
+            pending.set(reading);
+            drain();
+        }
+
+        private void heartbeat() {
+            if (pending.get() != null || sending.get()) {
+                return;
+            }
+            try {
+                streamExecutor.execute(() -> {
+                    try {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } catch (Exception e) {
+                        fail(e);
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                // Skip this heartbeat; the next tick will try again
+            }
+        }
+
+        private void drain() {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                streamExecutor.execute(() -> {
+                    try {
+                        Map<String, Object> reading;
+                        while ((reading = pending.getAndSet(null)) != null) {
+                            emitter.send(SseEmitter.event().name("conditions").data(reading));
+                        }
+                    } catch (Exception e) {
+                        fail(e);
+                    } finally {
+                        sending.set(false);
+                    }
+                    // A reading may have arrived after the loop ended but before the flag cleared
+                    if (pending.get() != null) {
+                        drain();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                sending.set(false);
+            }
+        }
+    }
+}
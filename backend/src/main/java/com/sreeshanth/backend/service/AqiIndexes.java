@@ -0,0 +1,45 @@
+package com.sreeshanth.backend.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for the "indexes" arrays returned by the Air Quality API.
+ */
+public final class AqiIndexes {
+
+    private AqiIndexes() {
+    }
+
+    /**
+     * Pick the Indian National AQI, falling back to the universal AQI and then to the first
+     * index available. Returns null when there are no indexes.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> preferred(List<?> indexes) {
+        if (indexes == null || indexes.isEmpty()) {
+            return null;
+        }
+        for (String code : List.of("ind_cpcb", "uaqi")) {
+            for (Object idx : indexes) {
+                Map<String, Object> index = (Map<String, Object>) idx;
+                if (code.equals(index.get("code"))) {
+                    return index;
+                }
+            }
+        }
+        return (Map<String, Object>) indexes.get(0);
+    }
+
+    /**
+     * Preferred AQI value of a reading (current conditions, history hour or forecast hour),
+     * or NaN when the reading has none.
+     */
+    public static double preferredAqi(Map<String, Object> reading) {
+        Map<String, Object> index = preferred((List<?>) reading.get("indexes"));
+        if (index == null || !(index.get("aqi") instanceof Number aqi)) {
+            return Double.NaN;
+        }
+        return aqi.doubleValue();
+    }
+}
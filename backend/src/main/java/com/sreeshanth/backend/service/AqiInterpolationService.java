@@ -0,0 +1,222 @@
+package com.sreeshanth.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Estimates current conditions at an arbitrary point from neighbouring cells that are already
+ * cached, so browsing the map does not cost an upstream call per click.
+ *
+ * Every cached "current:" reading within a few cells is weighted by inverse squared distance
+ * to the point. AQI values and pollutant concentrations are averaged per index/pollutant code;
+ * labels (category, colour, health advice) are taken from the neighbour whose value is closest
+ * to the estimate. When the neighbours are too few, too old or too far away for a useful
+ * confidence, the point is looked up upstream (and cached) as usual. So is a point whose own
+ * cell is cached but past its TTL, so the entry is refreshed and marked stale like any other.
+ */
+@Service
+public class AqiInterpolationService {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final AirQualityCache cache;
+    private final AirQualityService airQualityService;
+
+    @Value("${air-quality.cache.cell-size-degrees:0.01}")
+    private double cellSize;
+
+    @Value("${air-quality.interpolation.radius-cells:4}")
+    private int radiusCells;
+
+    @Value("${air-quality.interpolation.max-distance-km:5}")
+    private double maxDistanceKm;
+
+    @Value("${air-quality.interpolation.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    @Value("${air-quality.cache.ttl.current-minutes:10}")
+    private long currentTtlMinutes;
+
+    @Value("${air-quality.interpolation.min-neighbours:3}")
+    private int minNeighbours;
+
+    @Value("${air-quality.interpolation.min-confidence:0.4}")
+    private double minConfidence;
+
+    public AqiInterpolationService(AirQualityCache cache, AirQualityService airQualityService) {
+        this.cache = cache;
+        this.airQualityService = airQualityService;
+    }
+
+    public Map<String, Object> estimate(Map<String, Double> location) {
+        double latitude = location.get("latitude");
+        double longitude = location.get("longitude");
+        GridCell center = GridCell.of(latitude, longitude, cellSize);
+
+        List<String> keys = new ArrayList<>();
+        Map<String, GridCell> cellsByKey = new HashMap<>();
+        for (int dLat = -radiusCells; dLat <= radiusCells; dLat++) {
+            for (int dLng = -radiusCells; dLng <= radiusCells; dLng++) {
+                GridCell cell = new GridCell(center.latIndex() + dLat, center.lngIndex() + dLng, cellSize);
+                String key = "current:" + cell.key();
+                keys.add(key);
+                cellsByKey.put(key, cell);
+            }
+        }
+
+        Instant now = Instant.now();
+        Instant oldest = now.minus(Duration.ofMinutes(maxAgeMinutes));
+        String ownKey = "current:" + center.key();
+        Map<String, AirQualityCache.Snapshot> cached = cache.peekAll(keys);
+
+        AirQualityCache.Snapshot own = cached.get(ownKey);
+        if (own != null && own.payload() != null) {
+            if (own.fetchedAt().isAfter(now.minus(Duration.ofMinutes(currentTtlMinutes)))) {
+                // The point's own cell is cached and fresh; nothing to estimate
+                return own.payload();
+            }
+            // Expired: the regular lookup refreshes it, or serves it marked stale
+            return airQualityService.getCurrentConditions(location);
+        }
+
+        List<Neighbour> neighbours = new ArrayList<>();
+        for (Map.Entry<String, AirQualityCache.Snapshot> entry : cached.entrySet()) {
+            AirQualityCache.Snapshot snapshot = entry.getValue();
+            if (snapshot.payload() == null || snapshot.fetchedAt().isBefore(oldest)) {
+                continue;
+            }
+            GridCell cell = cellsByKey.get(entry.getKey());
+            double distanceKm = distanceKm(latitude, longitude, cell.centerLatitude(), cell.centerLongitude());
+            if (distanceKm <= maxDistanceKm) {
+                neighbours.add(new Neighbour(snapshot.payload(), distanceKm));
+            }
+        }
+
+        double confidence = confidence(neighbours, minNeighbours, maxDistanceKm);
+        if (neighbours.size() < minNeighbours || confidence < minConfidence) {
+            return airQualityService.getCurrentConditions(location);
+        }
+        return interpolate(neighbours, confidence);
+    }
+
+    /**
+     * 0..1: falls off linearly with the distance to the nearest neighbour and is scaled down
+     * when fewer than twice the minimum number of neighbours surround the point.
+     */
+    static double confidence(List<Neighbour> neighbours, int minNeighbours, double maxDistanceKm) {
+        if (neighbours.isEmpty()) {
+            return 0;
+        }
+        double nearestKm = neighbours.stream().mapToDouble(Neighbour::distanceKm).min().orElse(maxDistanceKm);
+        double proximity = Math.max(0, 1 - nearestKm / maxDistanceKm);
+        double coverage = Math.min(1, neighbours.size() / (2.0 * Math.max(1, minNeighbours)));
+        return proximity * coverage;
+    }
+
+    /**
+     * Inverse-distance weighted (p = 2) estimate in the currentConditions:lookup shape, plus an
+     * "interpolation" block describing how it was made.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> interpolate(List<Neighbour> neighbours, double confidence) {
+        List<Neighbour> byDistance = new ArrayList<>(neighbours);
+        byDistance.sort(Comparator.comparingDouble(Neighbour::distanceKm));
+        Neighbour nearest = byDistance.get(0);
+
+        // code -> [weighted sum, weight sum]
+        Map<String, double[]> indexSums = new LinkedHashMap<>();
+        Map<String, List<Map.Entry<Map<String, Object>, Double>>> indexCandidates = new HashMap<>();
+        Map<String, double[]> pollutantSums = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> pollutantTemplates = new HashMap<>();
+
+        for (Neighbour neighbour : byDistance) {
+            double weight = neighbour.weight();
+            List<Map<String, Object>> indexes = (List<Map<String, Object>>) neighbour.payload().get("indexes");
+            if (indexes != null) {
+                for (Map<String, Object> index : indexes) {
+                    if (!(index.get("aqi") instanceof Number aqi)) {
+                        continue;
+                    }
+                    String code = String.valueOf(index.get("code"));
+                    double[] sums = indexSums.computeIfAbsent(code, c -> new double[2]);
+                    sums[0] += weight * aqi.doubleValue();
+                    sums[1] += weight;
+                    indexCandidates.computeIfAbsent(code, c -> new ArrayList<>())
+                            .add(Map.entry(index, aqi.doubleValue()));
+                }
+            }
+            List<Map<String, Object>> pollutants = (List<Map<String, Object>>) neighbour.payload().get("pollutants");
+            if (pollutants != null) {
+                for (Map<String, Object> pollutant : pollutants) {
+                    Map<String, Object> concentration = (Map<String, Object>) pollutant.get("concentration");
+                    if (concentration == null || !(concentration.get("value") instanceof Number value)) {
+                        continue;
+                    }
+                    String code = String.valueOf(pollutant.get("code"));
+                    double[] sums = pollutantSums.computeIfAbsent(code, c -> new double[2]);
+                    sums[0] += weight * value.doubleValue();
+                    sums[1] += weight;
+                    pollutantTemplates.putIfAbsent(code, pollutant);
+                }
+            }
+        }
+
+        List<Map<String, Object>> indexes = new ArrayList<>();
+        for (Map.Entry<String, double[]> entry : indexSums.entrySet()) {
+            long aqi = Math.round(entry.getValue()[0] / entry.getValue()[1]);
+            // Category and colour come from the neighbour whose reading is closest to the estimate
+            Map<String, Object> template = indexCandidates.get(entry.getKey()).stream()
+                    .min(Comparator.comparingDouble(candidate -> Math.abs(candidate.getValue() - aqi)))
+                    .map(Map.Entry::getKey)
+                    .orElseThrow();
+            Map<String, Object> index = new LinkedHashMap<>(template);
+            index.put("aqi", aqi);
+            index.put("aqiDisplay", String.valueOf(aqi));
+            indexes.add(index);
+        }
+
+        List<Map<String, Object>> pollutants = new ArrayList<>();
+        for (Map.Entry<String, double[]> entry : pollutantSums.entrySet()) {
+            Map<String, Object> template = pollutantTemplates.get(entry.getKey());
+            Map<String, Object> concentration = new LinkedHashMap<>((Map<String, Object>) template.get("concentration"));
+            concentration.put("value", Math.round(entry.getValue()[0] / entry.getValue()[1] * 100) / 100.0);
+            Map<String, Object> pollutant = new LinkedHashMap<>(template);
+            pollutant.put("concentration", concentration);
+            pollutants.add(pollutant);
+        }
+
+        Map<String, Object> estimate = new LinkedHashMap<>();
+        estimate.put("dateTime", nearest.payload().get("dateTime"));
+        estimate.put("regionCode", nearest.payload().get("regionCode"));
+        estimate.put("indexes", indexes);
+        estimate.put("pollutants", pollutants);
+        if (nearest.payload().get("healthRecommendations") != null) {
+            estimate.put("healthRecommendations", nearest.payload().get("healthRecommendations"));
+        }
+        estimate.put("interpolated", true);
+        estimate.put("interpolation", Map.of(
+                "method", "idw",
+                "neighbours", byDistance.size(),
+                "nearestKm", Math.round(nearest.distanceKm() * 100) / 100.0,
+                "confidence", Math.round(confidence * 100) / 100.0));
+        return estimate;
+    }
+
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        // Equirectangular approximation; accurate to well under 1% over a few kilometres
+        double x = Math.toRadians(lng2 - lng1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_KM;
+    }
+
+    record Neighbour(Map<String, Object> payload, double distanceKm) {
+        double weight() {
+            // Guard against a neighbour centre sitting exactly on the point
+            return 1.0 / Math.max(distanceKm * distanceKm, 1e-6);
+        }
+    }
+}
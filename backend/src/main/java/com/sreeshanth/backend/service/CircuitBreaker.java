@@ -0,0 +1,71 @@
+package com.sreeshanth.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Stops calling an upstream that keeps failing. After {@code failureThreshold} consecutive
+ * failures the breaker opens and calls are refused for {@code openDuration}; then a single
+ * trial call is let through, which either closes the breaker or opens it again.
+ */
+public class CircuitBreaker {
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private int consecutiveFailures;
+    private Instant openUntil;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Whether a call may go ahead now. Every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (openUntil == null) {
+            return true;
+        }
+        if (Instant.now().isBefore(openUntil) || trialInFlight) {
+            return false;
+        }
+        trialInFlight = true;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (openUntil != null) {
+            System.out.println("✓ " + name + " circuit closed");
+        }
+        consecutiveFailures = 0;
+        openUntil = null;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (consecutiveFailures >= failureThreshold) {
+            if (openUntil == null) {
+                System.err.println("⚠️ " + name + " circuit opened after " + consecutiveFailures + " consecutive failures");
+            }
+            openUntil = Instant.now().plus(openDuration);
+        }
+    }
+
+    /**
+     * Seconds until the next trial call is allowed; 0 when closed.
+     */
+    public synchronized long retryAfterSeconds() {
+        if (openUntil == null) {
+            return 0;
+        }
+        return Math.max(1, Duration.between(Instant.now(), openUntil).toSeconds());
+    }
+}
@@ -0,0 +1,112 @@
+package com.sreeshanth.backend.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit for one group of endpoints, driven by observed latency.
+ *
+ * Two moving averages of response time are kept: a short one (roughly the last 10 requests)
+ * and a long one (roughly the last 100) that acts as the "healthy" baseline. While the short
+ * average stays within {@code tolerance} of the baseline the limit grows by about sqrt(limit)
+ * per sample; once it rises above, the limit shrinks in proportion (by at most half), so a
+ * slow upstream quickly caps how many request threads its feature can hold. Growth only
+ * happens while at least half of the current limit is in use. A slowdown that lasts for
+ * hundreds of requests is eventually absorbed into the baseline; the max limit bounds the
+ * threads a group can hold either way.
+ */
+public class ConcurrencyLimiter {
+
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 0.01;
+    private static final double SMOOTHING = 0.2;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public ConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Take a slot, or return null when the group is at its limit.
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), current + 1);
+            }
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (shortRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos = shortRttNanos * (1 - SHORT_WEIGHT) + rttNanos * SHORT_WEIGHT;
+        longRttNanos = longRttNanos * (1 - LONG_WEIGHT) + rttNanos * LONG_WEIGHT;
+
+        // After a long stretch of fast responses, let the baseline come down quickly as well
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        if (gradient >= 1.0 && inFlightAtStart < limit / 2) {
+            return; // Not using the limit we already have; no evidence it should grow
+        }
+        double target = limit * gradient + Math.sqrt(limit);
+        double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public final class Permit {
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Give the slot back and record the response time. Safe to call more than once.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                onSample(System.nanoTime() - startNanos, inFlightAtStart);
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.sreeshanth.backend.service;
+
+import com.sreeshanth.backend.model.ExposureAccount;
+import com.sreeshanth.backend.model.Location;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.repository.ExposureAccountRepository;
+import com.sreeshanth.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Keeps each user's cumulative pollutant exposure at their primary location.
+ *
+ * Once an hour the newest hourly readings for every primary location are folded into the
+ * user's {@link ExposureAccount}: each pollutant's concentration is added once per hour to
+ * today's and this week's totals (so PM2.5 accumulates as µg/m³·h), along with the AQI. Old
+ * days and weeks roll off, keeping the document small, and the dashboard reads it by id.
+ * Readings come from the per-cell history cache, so users sharing an area cost one upstream
+ * call. When the primary location moves to another cell the account starts over and is
+ * backfilled from history. Only one node runs each hourly pass, and an account is only written
+ * over the version it was read from, so a profile-save backfill racing the hourly pass cannot
+ * count the same hours twice.
+ */
+@Service
+public class ExposureService {
+
+    private final ExposureAccountRepository exposureAccountRepository;
+    private final UserRepository userRepository;
+    private final AirQualityService airQualityService;
+    private final JobLock jobLock;
+    private final MongoTemplate mongoTemplate;
+    private final ThreadPoolTaskExecutor backfillExecutor;
+    private final Clock clock;
+
+    @Value("${exposure.enabled:true}")
+    private boolean enabled;
+
+    @Value("${exposure.zone:Asia/Kolkata}")
+    private String zone;
+
+    @Value("${exposure.backfill-hours:168}")
+    private int backfillHours;
+
+    @Value("${exposure.retention-days:14}")
+    private int retentionDays;
+
+    @Value("${exposure.retention-weeks:8}")
+    private int retentionWeeks;
+
+    @Value("${air-quality.cache.cell-size-degrees:0.01}")
+    private double cellSize;
+
+    @Autowired
+    public ExposureService(ExposureAccountRepository exposureAccountRepository, UserRepository userRepository,
+                           AirQualityService airQualityService, JobLock jobLock, MongoTemplate mongoTemplate,
+                           @Qualifier("exposureExecutor") ThreadPoolTaskExecutor backfillExecutor) {
+        this(exposureAccountRepository, userRepository, airQualityService, jobLock, mongoTemplate,
+                backfillExecutor, Clock.systemUTC());
+    }
+
+    ExposureService(ExposureAccountRepository exposureAccountRepository, UserRepository userRepository,
+                    AirQualityService airQualityService, JobLock jobLock, MongoTemplate mongoTemplate,
+                    ThreadPoolTaskExecutor backfillExecutor, Clock clock) {
+        this.exposureAccountRepository = exposureAccountRepository;
+        this.userRepository = userRepository;
+        this.airQualityService = airQualityService;
+        this.jobLock = jobLock;
+        this.mongoTemplate = mongoTemplate;
+        this.backfillExecutor = backfillExecutor;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${exposure.cron:0 10 * * * *}")
+    public void accumulateHourly() {
+        if (!enabled || !jobLock.tryAcquire("exposure", Duration.ofMinutes(30))) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int updated = 0;
+        try (Stream<User> users = userRepository.findByPrimaryLocationNotNull()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                try {
+                    if (accumulate(user)) {
+                        updated++;
+                    }
+                } catch (Exception e) {
+                    System.err.println("⚠️ Skipping exposure for user " + user.getId() + ": " + e.getMessage());
+                }
+            }
+        }
+        System.out.println("✓ Updated exposure for " + updated + " users in "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Bring the account up to date after a profile change on the bounded exposure pool, off
+     * the request thread. A new primary location cell resets the totals and backfills them
+     * from history. When the pool is full the backfill is skipped; the next hourly pass does it.
+     */
+    public void accumulateInBackground(User user) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            backfillExecutor.execute(() -> {
+                try {
+                    accumulate(user);
+                } catch (Exception e) {
+                    System.err.println("⚠️ Exposure backfill failed for user " + user.getId() + ": " + e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            System.err.println("⚠️ Exposure backfill queue full, leaving user " + user.getId() + " to the hourly pass");
+        }
+    }
+
+    /**
+     * The user's exposure account, or null when nothing has been accumulated yet.
+     */
+    public ExposureAccount get(String userId) {
+        return exposureAccountRepository.findById(userId).orElse(null);
+    }
+
+    /**
+     * Fold every hour since the account's last one into it. Returns whether anything changed;
+     * false as well when another writer updated the account first.
+     */
+    @SuppressWarnings("unchecked")
+    boolean accumulate(User user) {
+        Location primary = user.getPrimaryLocation();
+        if (primary == null || primary.getLatitude() == null || primary.getLongitude() == null) {
+            return false;
+        }
+        String cellKey = GridCell.of(primary.getLatitude(), primary.getLongitude(), cellSize).key();
+
+        Optional<ExposureAccount> stored = exposureAccountRepository.findById(user.getId());
+        // The version the write is conditional on; the fold below mutates the stored account
+        String storedCell = stored.map(ExposureAccount::getCellKey).orElse(null);
+        Date storedLastHour = stored.map(ExposureAccount::getLastHour).orElse(null);
+        ExposureAccount account = stored
+                .filter(existing -> cellKey.equals(existing.getCellKey()))
+                .orElseGet(() -> new ExposureAccount(user.getId(), cellKey));
+
+        Instant thisHour = clock.instant().truncatedTo(ChronoUnit.HOURS);
+        long missing = account.getLastHour() == null
+                ? backfillHours
+                : Duration.between(account.getLastHour().toInstant(), thisHour).toHours();
+        if (missing <= 0) {
+            return false;
+        }
+
+        // Usually one hour, which every user in the cell shares through the history cache. A
+        // cached or stale response may not have the newest hour yet; it is picked up next run.
+        Map<String, Object> history = airQualityService.getHistoricalData(
+                Map.of("latitude", primary.getLatitude(), "longitude", primary.getLongitude()),
+                (int) Math.min(missing, backfillHours));
+        List<Map<String, Object>> hours = history.get("hoursInfo") instanceof List<?> list
+                ? new ArrayList<>((List<Map<String, Object>>) list)
+                : new ArrayList<>();
+        hours.sort(Comparator.comparing(hour -> String.valueOf(hour.get("dateTime"))));
+
+        ZoneId zoneId = ZoneId.of(zone);
+        boolean changed = false;
+        for (Map<String, Object> hour : hours) {
+            changed |= fold(account, hour, zoneId, retentionDays, retentionWeeks);
+        }
+        if (changed || account.getUpdatedAt() == null) {
+            account.setUpdatedAt(Date.from(clock.instant()));
+            if (!save(account, stored.isPresent(), storedCell, storedLastHour)) {
+                System.err.println("⚠️ Exposure for user " + user.getId() + " was updated concurrently; skipped");
+                return false;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Write the account only if the stored one is still the one it was built from (same cell
+     * and lastHour), or insert it if there was none. Returns false when another writer won.
+     */
+    private boolean save(ExposureAccount account, boolean stored, String storedCell, Date storedLastHour) {
+        if (!stored) {
+            try {
+                mongoTemplate.insert(account);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        }
+        return mongoTemplate.findAndReplace(query(where("_id").is(account.getUserId())
+                        .and("cellKey").is(storedCell)
+                        .and("lastHour").is(storedLastHour)),
+                account) != null;
+    }
+
+    /**
+     * Add one hourly reading to the account's day and week. Hours at or before lastHour are
+     * ignored, so a reading is never counted twice; readings must arrive oldest first.
+     */
+    @SuppressWarnings("unchecked")
+    static boolean fold(ExposureAccount account, Map<String, Object> hour, ZoneId zone, int retentionDays, int retentionWeeks) {
+        Instant time;
+        try {
+            time = Instant.parse(String.valueOf(hour.get("dateTime")));
+        } catch (Exception e) {
+            return false;
+        }
+        if (account.getLastHour() != null && !time.isAfter(account.getLastHour().toInstant())) {
+            return false;
+        }
+
+        LocalDate day = time.atZone(zone).toLocalDate();
+        ExposureAccount.Period daily = period(account.getDays(), day, retentionDays);
+        ExposureAccount.Period weekly = period(account.getWeeks(), day.with(DayOfWeek.MONDAY), retentionWeeks);
+
+        if (hour.get("pollutants") instanceof List<?> pollutants) {
+            for (Object item : pollutants) {
+                Map<String, Object> pollutant = (Map<String, Object>) item;
+                if (!(pollutant.get("concentration") instanceof Map<?, ?> concentration)
+                        || !(concentration.get("value") instanceof Number value)) {
+                    continue;
+                }
+                String code = String.valueOf(pollutant.get("code"));
+                daily.getDoses().merge(code, value.doubleValue(), Double::sum);
+                weekly.getDoses().merge(code, value.doubleValue(), Double::sum);
+                if (concentration.get("units") != null) {
+                    account.getUnits().putIfAbsent(code, concentration.get("units").toString());
+                }
+            }
+        }
+
+        double aqi = AqiIndexes.preferredAqi(hour);
+        for (ExposureAccount.Period period : List.of(daily, weekly)) {
+            period.setHours(period.getHours() + 1);
+            if (!Double.isNaN(aqi)) {
+                period.setAqiSum(period.getAqiSum() + aqi);
+                period.setAqiHours(period.getAqiHours() + 1);
+                period.setMaxAqi(Math.max(period.getMaxAqi(), (int) Math.round(aqi)));
+            }
+        }
+
+        account.setLastHour(Date.from(time));
+        return true;
+    }
+
+    /**
+     * The period starting on start, appended when it is new. Periods older than the
+     * retention are dropped from the front.
+     */
+    private static ExposureAccount.Period period(List<ExposureAccount.Period> periods, LocalDate start, int retention) {
+        String key = start.toString();
+        if (!periods.isEmpty() && key.equals(periods.get(periods.size() - 1).getStart())) {
+            return periods.get(periods.size() - 1);
+        }
+        ExposureAccount.Period period = new ExposureAccount.Period(key);
+        periods.add(period);
+        while (periods.size() > retention) {
+            periods.remove(0);
+        }
+        return period;
+    }
+}
@@ -0,0 +1,24 @@
+package com.sreeshanth.backend.service;
+
+/**
+ * A square lat/lng cell used to share upstream data between nearby requests.
+ * Two points in the same cell get the same cache key.
+ */
+public record GridCell(int latIndex, int lngIndex, double size) {
+
+    public static GridCell of(double latitude, double longitude, double size) {
+        return new GridCell((int) Math.floor(latitude / size), (int) Math.floor(longitude / size), size);
+    }
+
+    public double centerLatitude() {
+        return (latIndex + 0.5) * size;
+    }
+
+    public double centerLongitude() {
+        return (lngIndex + 0.5) * size;
+    }
+
+    public String key() {
+        return latIndex + "_" + lngIndex;
+    }
+}
@@ -0,0 +1,72 @@
+package com.sreeshanth.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster-wide lease in the job_locks collection, so a job every node schedules runs on only
+ * one of them. A lease is taken when the named lock does not exist or its previous lease has
+ * run out; the unique _id makes the race between nodes safe. Leases are not released: a
+ * periodic job holds it for less than its period, so the next run can take it again. A one-off
+ * job releases its lease when it finishes instead.
+ */
+@Service
+public class JobLock {
+
+    private static final String COLLECTION = "job_locks";
+
+    private final MongoTemplate mongoTemplate;
+    private final Clock clock;
+    private final Map<String, Date> held = new ConcurrentHashMap<>(); // name -> lockedAt of leases taken here
+
+    @Autowired
+    public JobLock(MongoTemplate mongoTemplate) {
+        this(mongoTemplate, Clock.systemUTC());
+    }
+
+    JobLock(MongoTemplate mongoTemplate, Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.clock = clock;
+    }
+
+    /**
+     * Take the named lock for lease, or return false when another node holds it.
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        Instant now = clock.instant();
+        Query free = Query.query(Criteria.where("_id").is(name).and("lockedUntil").lt(Date.from(now)));
+        Update take = new Update()
+                .set("lockedAt", Date.from(now))
+                .set("lockedUntil", Date.from(now.plus(lease)));
+        try {
+            // Updates an expired lease, or inserts a new lock; a held lease makes the insert collide
+            mongoTemplate.upsert(free, take, COLLECTION);
+            held.put(name, Date.from(now));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Give up a lease taken by this node, unless it already ran out and another node took it.
+     */
+    public void release(String name) {
+        Date lockedAt = held.remove(name);
+        if (lockedAt != null) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(name).and("lockedAt").is(lockedAt)), COLLECTION);
+        }
+    }
+}
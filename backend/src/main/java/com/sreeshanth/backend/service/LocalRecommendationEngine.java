@@ -0,0 +1,170 @@
+package com.sreeshanth.backend.service;
+
+import com.sreeshanth.backend.model.User;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deterministic, in-process health recommendations. Used when Gemini misses the latency
+ * budget or fails, and produces the same 'primary'/'secondary' shape as the AI response.
+ * Inputs are reduced to a severity level, the dominant pollutant and a canonical set of
+ * conditions, and the advice is picked from fixed tables, so an answer costs microseconds.
+ */
+@Service
+public class LocalRecommendationEngine {
+
+    public enum Condition {
+        ASTHMA, COPD, HEART, ALLERGY, DIABETES, PREGNANCY
+    }
+
+    public enum AgeGroup {
+        CHILD, ADULT, SENIOR
+    }
+
+    // Keyword -> condition; matched against lower-cased free text from the profile
+    private static final List<Map.Entry<String, Condition>> CONDITION_KEYWORDS = List.of(
+        Map.entry("asthma", Condition.ASTHMA),
+        Map.entry("wheez", Condition.ASTHMA),
+        Map.entry("copd", Condition.COPD),
+        Map.entry("emphysema", Condition.COPD),
+        Map.entry("bronchitis", Condition.COPD),
+        Map.entry("lung", Condition.COPD),
+        Map.entry("heart", Condition.HEART),
+        Map.entry("cardi", Condition.HEART),
+        Map.entry("hypertension", Condition.HEART),
+        Map.entry("blood pressure", Condition.HEART),
+        Map.entry("arrhythmia", Condition.HEART),
+        Map.entry("allerg", Condition.ALLERGY),
+        Map.entry("hay fever", Condition.ALLERGY),
+        Map.entry("rhinitis", Condition.ALLERGY),
+        Map.entry("sinus", Condition.ALLERGY),
+        Map.entry("diabet", Condition.DIABETES),
+        Map.entry("pregnan", Condition.PREGNANCY)
+    );
+
+    private static final String[] GENERAL_ADVICE = {
+        "Air quality is good. It's a great time for outdoor activities.",
+        "Air quality is acceptable. Unusually sensitive people should consider shortening long or intense outdoor activities.",
+        "Air quality is moderate to unhealthy. Reduce prolonged or heavy exertion outdoors and take more breaks.",
+        "Air quality is poor. Avoid prolonged outdoor exertion and keep windows closed.",
+        "Air quality is very poor. Stay indoors, keep windows closed and use an air purifier if available."
+    };
+
+    private static final String[] SENSITIVE_ADVICE = {
+        "Air quality is good. Enjoy outdoor activities, and keep your usual medication routine.",
+        "Air quality is acceptable, but given your health profile, limit long or intense outdoor activity and watch for symptoms.",
+        "Given your health profile, avoid strenuous outdoor activity today and keep any rescue medication close at hand.",
+        "Given your health profile, stay indoors as much as possible and keep rescue medication within reach.",
+        "Air quality is dangerous for your health profile. Stay indoors with windows closed, run an air purifier, and seek medical help if symptoms worsen."
+    };
+
+    private static final Map<String, String> POLLUTANT_ADVICE = Map.of(
+        "pm25", "Fine particles (PM2.5) are dominant. If you go out, a well-fitting N95 mask offers real protection.",
+        "pm10", "Coarse dust (PM10) is dominant. A mask helps outdoors, and wiping surfaces and rinsing your face reduces exposure.",
+        "o3", "Ozone is dominant and peaks in the afternoon. Plan outdoor activity for the early morning or evening.",
+        "no2", "Nitrogen dioxide from traffic is dominant. Avoid busy roads and exercise away from heavy traffic.",
+        "so2", "Sulfur dioxide is dominant. Avoid areas near industrial sites and reduce exertion outdoors.",
+        "co", "Carbon monoxide is dominant. Avoid congested traffic and ensure indoor spaces are well ventilated."
+    );
+
+    private static final Map<Condition, String> CONDITION_ADVICE = Map.of(
+        Condition.ASTHMA, "With asthma, keep your reliever inhaler with you and follow your asthma action plan.",
+        Condition.COPD, "With a chronic lung condition, watch for increased breathlessness and keep your medication on hand.",
+        Condition.HEART, "With a heart condition, avoid strenuous exertion and watch for chest pain or palpitations.",
+        Condition.ALLERGY, "With allergies, keep windows closed and shower after being outdoors to remove irritants.",
+        Condition.DIABETES, "With diabetes, you may be more sensitive to pollution; keep activity moderate and stay hydrated.",
+        Condition.PREGNANCY, "During pregnancy, limit time outdoors on poor air days and prefer well-ventilated, filtered indoor spaces."
+    );
+
+    public Map<String, String> recommend(User user, Map<String, Object> airQualityData) {
+        int severity = severity(airQualityData);
+        Set<Condition> conditions = canonicalConditions(user.getMedicalConditions());
+        AgeGroup ageGroup = ageGroup(user.getDob());
+        boolean sensitive = !conditions.isEmpty() || ageGroup != AgeGroup.ADULT;
+
+        String primary = sensitive ? SENSITIVE_ADVICE[severity] : GENERAL_ADVICE[severity];
+
+        String secondary;
+        Condition mostRelevant = conditions.isEmpty() ? null : conditions.iterator().next();
+        String pollutant = dominantPollutant(airQualityData);
+        if (severity >= 2 && mostRelevant != null) {
+            secondary = CONDITION_ADVICE.get(mostRelevant);
+        } else if (severity >= 1 && POLLUTANT_ADVICE.containsKey(pollutant)) {
+            secondary = POLLUTANT_ADVICE.get(pollutant);
+        } else if (ageGroup == AgeGroup.CHILD) {
+            secondary = "Children breathe faster than adults; favour parks over roadside play areas.";
+        } else if (ageGroup == AgeGroup.SENIOR) {
+            secondary = "Stay hydrated and check the air quality again before going out later in the day.";
+        } else {
+            secondary = "Check the forecast before planning long outdoor activities later in the day.";
+        }
+
+        return Map.of("primary", primary, "secondary", secondary);
+    }
+
+    /**
+     * Map a free-text conditions field to known conditions. Ordered by enum declaration, so
+     * respiratory conditions come first.
+     */
+    public static Set<Condition> canonicalConditions(String medicalConditions) {
+        Set<Condition> conditions = EnumSet.noneOf(Condition.class);
+        if (medicalConditions == null || medicalConditions.isBlank()) {
+            return conditions;
+        }
+        String text = medicalConditions.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, Condition> keyword : CONDITION_KEYWORDS) {
+            if (text.contains(keyword.getKey())) {
+                conditions.add(keyword.getValue());
+            }
+        }
+        return conditions;
+    }
+
+    public static AgeGroup ageGroup(String dob) {
+        if (dob == null || dob.isEmpty()) {
+            return AgeGroup.ADULT;
+        }
+        try {
+            int age = Period.between(LocalDate.parse(dob, DateTimeFormatter.ISO_LOCAL_DATE), LocalDate.now()).getYears();
+            return age < 12 ? AgeGroup.CHILD : age >= 65 ? AgeGroup.SENIOR : AgeGroup.ADULT;
+        } catch (Exception e) {
+            return AgeGroup.ADULT;
+        }
+    }
+
+    /**
+     * Severity from 0 (good) to 4 (very poor) on the preferred index's own scale.
+     */
+    @SuppressWarnings("unchecked")
+    public static int severity(Map<String, Object> airQualityData) {
+        Map<String, Object> index = AqiIndexes.preferred((List<?>) airQualityData.get("indexes"));
+        if (index == null || !(index.get("aqi") instanceof Number number)) {
+            return 1;
+        }
+        int aqi = number.intValue();
+        String code = String.valueOf(index.get("code"));
+        return switch (code) {
+            // Universal AQI runs the other way: 100 is best
+            case "uaqi" -> aqi >= 80 ? 0 : aqi >= 60 ? 1 : aqi >= 40 ? 2 : aqi >= 20 ? 3 : 4;
+            case "usa_epa", "usa_epa_nowcast" -> aqi <= 50 ? 0 : aqi <= 100 ? 1 : aqi <= 150 ? 2 : aqi <= 200 ? 3 : 4;
+            default -> aqi <= 50 ? 0 : aqi <= 100 ? 1 : aqi <= 200 ? 2 : aqi <= 300 ? 3 : 4; // ind_cpcb scale
+        };
+    }
+
+    private static String dominantPollutant(Map<String, Object> airQualityData) {
+        Object pollutant = airQualityData.get("dominantPollutant");
+        if (pollutant == null) {
+            Map<String, Object> index = AqiIndexes.preferred((List<?>) airQualityData.get("indexes"));
+            pollutant = index != null ? index.get("dominantPollutant") : null;
+        }
+        return pollutant != null ? pollutant.toString().toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,46 @@
+package com.sreeshanth.backend.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs password hashing and verification on the dedicated passwordHashExecutor so a login
+ * burst only competes with other logins, not with the rest of the API. When its queue is
+ * full, submission fails fast with a TaskRejectedException and the caller sheds the request.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final AuthenticationManager authenticationManager;
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+
+    public PasswordHashingService(AuthenticationManager authenticationManager,
+                                  PasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor) {
+        this.authenticationManager = authenticationManager;
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+    }
+
+    /**
+     * Verify credentials. Legacy or weaker hashes are re-encoded on success by the
+     * authentication provider's password upgrade hook.
+     */
+    public CompletableFuture<Authentication> authenticate(String identifier, String password) {
+        return CompletableFuture.supplyAsync(
+                () -> authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(identifier, password)),
+                executor);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+    }
+}
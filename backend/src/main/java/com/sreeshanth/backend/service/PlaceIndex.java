@@ -0,0 +1,182 @@
+package com.sreeshanth.backend.service;
+
+/**
+ * Static nearest-neighbour index over named places.
+ *
+ * Points are stored as unit vectors on the sphere in parallel float arrays laid out as an
+ * implicit k-d tree (the median of every range is its root), so there are no node objects and
+ * chord distance orders results exactly like great-circle distance, including across the
+ * antimeridian and near the poles.
+ */
+public final class PlaceIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final float[][] coords; // x, y, z per point, in tree order
+    private final float[] latitudes;
+    private final float[] longitudes;
+    private final String[] names;
+
+    private PlaceIndex(float[][] coords, float[] latitudes, float[] longitudes, String[] names) {
+        this.coords = coords;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.names = names;
+    }
+
+    /**
+     * Build an index over the first {@code size} entries of the given arrays.
+     */
+    public static PlaceIndex build(float[] latitudes, float[] longitudes, String[] names, int size) {
+        float[][] xyz = new float[3][size];
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            double lat = Math.toRadians(latitudes[i]);
+            double lng = Math.toRadians(longitudes[i]);
+            xyz[0][i] = (float) (Math.cos(lat) * Math.cos(lng));
+            xyz[1][i] = (float) (Math.cos(lat) * Math.sin(lng));
+            xyz[2][i] = (float) Math.sin(lat);
+            order[i] = i;
+        }
+
+        arrange(xyz, order, 0, size, 0);
+
+        float[][] coords = new float[3][size];
+        float[] lats = new float[size];
+        float[] lngs = new float[size];
+        String[] labels = new String[size];
+        for (int i = 0; i < size; i++) {
+            int source = order[i];
+            coords[0][i] = xyz[0][source];
+            coords[1][i] = xyz[1][source];
+            coords[2][i] = xyz[2][source];
+            lats[i] = latitudes[source];
+            lngs[i] = longitudes[source];
+            labels[i] = names[source];
+        }
+        return new PlaceIndex(coords, lats, lngs, labels);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Index of the place nearest to the given point, or -1 when the index is empty.
+     */
+    public int nearest(double latitude, double longitude) {
+        if (names.length == 0) {
+            return -1;
+        }
+        double lat = Math.toRadians(latitude);
+        double lng = Math.toRadians(longitude);
+        double[] query = {
+            Math.cos(lat) * Math.cos(lng),
+            Math.cos(lat) * Math.sin(lng),
+            Math.sin(lat)
+        };
+
+        double[] bestDistance = {Double.MAX_VALUE};
+        int[] best = {-1};
+        search(query, 0, names.length, 0, bestDistance, best);
+        return best[0];
+    }
+
+    public String name(int i) {
+        return names[i];
+    }
+
+    public double latitude(int i) {
+        return latitudes[i];
+    }
+
+    public double longitude(int i) {
+        return longitudes[i];
+    }
+
+    /**
+     * Great-circle distance from the given point to place i.
+     */
+    public double distanceKm(int i, double latitude, double longitude) {
+        double dLat = Math.toRadians(latitudes[i] - latitude);
+        double dLng = Math.toRadians(longitudes[i] - longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(latitudes[i]))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void search(double[] query, int lo, int hi, int depth, double[] bestDistance, int[] best) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+
+        double dx = query[0] - coords[0][mid];
+        double dy = query[1] - coords[1][mid];
+        double dz = query[2] - coords[2][mid];
+        double distance = dx * dx + dy * dy + dz * dz;
+        if (distance < bestDistance[0]) {
+            bestDistance[0] = distance;
+            best[0] = mid;
+        }
+
+        int axis = depth % 3;
+        double diff = query[axis] - coords[axis][mid];
+        if (diff < 0) {
+            search(query, lo, mid, depth + 1, bestDistance, best);
+            if (diff * diff < bestDistance[0]) {
+                search(query, mid + 1, hi, depth + 1, bestDistance, best);
+            }
+        } else {
+            search(query, mid + 1, hi, depth + 1, bestDistance, best);
+            if (diff * diff < bestDistance[0]) {
+                search(query, lo, mid, depth + 1, bestDistance, best);
+            }
+        }
+    }
+
+    private static void arrange(float[][] xyz, int[] order, int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(xyz[depth % 3], order, lo, hi - 1, mid);
+        arrange(xyz, order, lo, mid, depth + 1);
+        arrange(xyz, order, mid + 1, hi, depth + 1);
+    }
+
+    /**
+     * Quickselect: reorder order[left..right] so order[k] holds the k-th smallest key and
+     * everything before it is not larger.
+     */
+    private static void select(float[] keys, int[] order, int left, int right, int k) {
+        while (right > left) {
+            float pivot = keys[order[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) {
+                    i++;
+                }
+                while (keys[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
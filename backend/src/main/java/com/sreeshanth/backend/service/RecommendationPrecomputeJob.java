@@ -0,0 +1,218 @@
+package com.sreeshanth.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sreeshanth.backend.model.DailyRecommendation;
+import com.sreeshanth.backend.model.Location;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.repository.DailyRecommendationRepository;
+import com.sreeshanth.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Off-peak job that precomputes each user's recommendations for the day, so the morning burst
+ * of app opens becomes a read of daily_recommendations instead of a Gemini call per user.
+ *
+ * Users with a primary location are grouped by a coarse profile signature (canonical
+ * conditions, age group) plus the forecast severity and dominant pollutant at their location.
+ * Each group is described once, groups are sent to Gemini in batches, and batches are spaced
+ * out to stay under the model's rate limit. Only one node runs the job per day.
+ */
+@Service
+public class RecommendationPrecomputeJob {
+
+    private final UserRepository userRepository;
+    private final DailyRecommendationRepository dailyRecommendationRepository;
+    private final AirQualityService airQualityService;
+    private final AiService aiService;
+    private final LocalRecommendationEngine localEngine;
+    private final JobLock jobLock;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ai.precompute.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.precompute.validity-hours:12}")
+    private int validityHours;
+
+    @Value("${ai.precompute.batch-size:20}")
+    private int batchSize;
+
+    @Value("${ai.precompute.min-interval-ms:4000}")
+    private long minIntervalMs;
+
+    @Value("${air-quality.cache.cell-size-degrees:0.01}")
+    private double cellSize;
+
+    public RecommendationPrecomputeJob(UserRepository userRepository,
+                                       DailyRecommendationRepository dailyRecommendationRepository,
+                                       AirQualityService airQualityService,
+                                       AiService aiService,
+                                       LocalRecommendationEngine localEngine,
+                                       JobLock jobLock,
+                                       ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.dailyRecommendationRepository = dailyRecommendationRepository;
+        this.airQualityService = airQualityService;
+        this.aiService = aiService;
+        this.localEngine = localEngine;
+        this.jobLock = jobLock;
+        this.objectMapper = objectMapper;
+    }
+
+    @Scheduled(cron = "${ai.precompute.cron:0 0 3 * * *}")
+    public void run() {
+        // Held for half a day: longer than any clock skew between nodes, shorter than the period
+        if (!enabled || !jobLock.tryAcquire("recommendation-precompute", Duration.ofHours(12))) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Instant validUntil = Instant.now().plus(Duration.ofHours(validityHours));
+
+        // signature -> group; users in a group share one recommendation
+        Map<String, Group> groups = new LinkedHashMap<>();
+        try (Stream<User> users = userRepository.findByPrimaryLocationNotNull()) {
+            users.forEach(user -> {
+                try {
+                    Map<String, Object> reading = worstForecastHour(user.getPrimaryLocation());
+                    if (reading == null) {
+                        return;
+                    }
+                    String signature = signature(user, reading);
+                    Location location = user.getPrimaryLocation();
+                    groups.computeIfAbsent(signature, key -> new Group("g" + groups.size(), user, reading))
+                            .userCells.put(user.getId(),
+                                    GridCell.of(location.getLatitude(), location.getLongitude(), cellSize).key());
+                } catch (Exception e) {
+                    System.err.println("⚠️ Skipping precompute for user " + user.getId() + ": " + e.getMessage());
+                }
+            });
+        }
+
+        List<String> signatures = new ArrayList<>(groups.keySet());
+        for (int from = 0; from < signatures.size(); from += batchSize) {
+            if (from > 0) {
+                sleep(minIntervalMs);
+            }
+            List<String> batch = signatures.subList(from, Math.min(from + batchSize, signatures.size()));
+            Map<String, Map<String, String>> results = askGemini(batch, groups);
+
+            for (String signature : batch) {
+                Group group = groups.get(signature);
+                Map<String, String> recommendations = results.get(group.id);
+                String source = "ai";
+                if (recommendations == null || recommendations.get("primary") == null) {
+                    recommendations = localEngine.recommend(group.representative, group.reading);
+                    source = "local";
+                }
+                store(group, signature, recommendations, source, validUntil);
+            }
+        }
+
+        System.out.println("✓ Precomputed recommendations for " + groups.size() + " profile groups in "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private Map<String, Map<String, String>> askGemini(List<String> batch, Map<String, Group> groups) {
+        Map<String, String> descriptions = new LinkedHashMap<>();
+        for (String signature : batch) {
+            Group group = groups.get(signature);
+            descriptions.put(group.id, describe(group));
+        }
+
+        try {
+            String response = aiService.getBatchRecommendations(descriptions);
+            return AiService.parseJson(objectMapper, response, Map.class);
+        } catch (Exception e) {
+            System.err.println("⚠️ Batch recommendations failed, using local engine: " + e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private void store(Group group, String signature, Map<String, String> recommendations, String source, Instant validUntil) {
+        Date now = new Date();
+        int severity = LocalRecommendationEngine.severity(group.reading);
+        List<DailyRecommendation> dailies = new ArrayList<>(group.userCells.size());
+        for (Map.Entry<String, String> userCell : group.userCells.entrySet()) {
+            DailyRecommendation daily = new DailyRecommendation();
+            daily.setUserId(userCell.getKey());
+            daily.setCell(userCell.getValue());
+            daily.setPrimary(recommendations.get("primary"));
+            daily.setSecondary(recommendations.get("secondary"));
+            daily.setSource(source);
+            daily.setSeverity(severity);
+            daily.setProfileSignature(signature);
+            daily.setGeneratedAt(now);
+            daily.setValidUntil(Date.from(validUntil));
+            dailies.add(daily);
+        }
+        dailyRecommendationRepository.saveAll(dailies);
+    }
+
+    /**
+     * The forecast hour with the worst air in the validity window at this location. Forecasts
+     * are cached per cell, so users sharing an area cost one upstream call.
+     */
+    private Map<String, Object> worstForecastHour(Location location) {
+        if (location.getLatitude() == null || location.getLongitude() == null) {
+            return null;
+        }
+        Map<String, Object> forecast = airQualityService.getForecastData(
+                Map.of("latitude", location.getLatitude(), "longitude", location.getLongitude()), validityHours);
+        List<Map<String, Object>> hours = (List<Map<String, Object>>) forecast.get("hourlyForecasts");
+        if (hours == null || hours.isEmpty()) {
+            return null;
+        }
+        return hours.stream()
+                .max(Comparator.comparingInt(LocalRecommendationEngine::severity))
+                .orElse(null);
+    }
+
+    private static String signature(User user, Map<String, Object> reading) {
+        Map<String, Object> index = AqiIndexes.preferred((List<?>) reading.get("indexes"));
+        Object pollutant = index != null ? index.get("dominantPollutant") : null;
+        return LocalRecommendationEngine.canonicalConditions(user.getMedicalConditions())
+                + "|" + LocalRecommendationEngine.ageGroup(user.getDob())
+                + "|" + LocalRecommendationEngine.severity(reading)
+                + "|" + pollutant;
+    }
+
+    private static String describe(Group group) {
+        Map<String, Object> index = AqiIndexes.preferred((List<?>) group.reading.get("indexes"));
+        Set<LocalRecommendationEngine.Condition> conditions =
+                LocalRecommendationEngine.canonicalConditions(group.representative.getMedicalConditions());
+        return "age group " + LocalRecommendationEngine.ageGroup(group.representative.getDob()).name().toLowerCase()
+                + "; conditions " + (conditions.isEmpty() ? "none listed" : conditions.toString().toLowerCase())
+                + "; worst forecast AQI today " + (index != null ? index.get("aqi") + " (" + index.get("code") + ", "
+                + index.get("category") + ")" : "not available")
+                + "; dominant pollutant " + (index != null ? index.get("dominantPollutant") : "not available");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Group {
+        private final String id; // Short id used as the JSON key in the batch prompt
+        private final User representative;
+        private final Map<String, Object> reading;
+        private final Map<String, String> userCells = new LinkedHashMap<>(); // userId -> primary location cell
+
+        private Group(String id, User representative, Map<String, Object> reading) {
+            this.id = id;
+            this.representative = representative;
+            this.reading = reading;
+        }
+    }
+}
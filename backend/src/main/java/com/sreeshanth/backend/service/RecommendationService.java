@@ -0,0 +1,207 @@
+package com.sreeshanth.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sreeshanth.backend.model.DailyRecommendation;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.repository.DailyRecommendationRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Personalized recommendations under a latency budget.
+ *
+ * A still-valid answer from the nightly batch ({@link RecommendationPrecomputeJob}) is used
+ * first. Otherwise Gemini is asked; if it has not answered within the budget (or fails, or its pool is
+ * full) the local rule engine answers instead. A Gemini call that finishes after the deadline
+ * is kept for a while so the client can pick up the upgraded answer via {@link #latest}.
+ * Upgrades are kept per user and grid cell (from the request's "location"), so a slow answer
+ * for one place never replaces the one for a place asked about later. Upgrades nobody
+ * collects are swept once expired, and at most a fixed number are held.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Duration UPGRADE_TTL = Duration.ofMinutes(30);
+
+    private final AiService aiService;
+    private final LocalRecommendationEngine localEngine;
+    private final DailyRecommendationRepository dailyRecommendationRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor aiExecutor;
+    private final int maxUpgrades;
+    private final double cellSize;
+    private final Map<String, Upgrade> upgrades = new ConcurrentHashMap<>(); // userId|cell -> late answer
+
+    @Value("${ai.recommendations.latency-budget-ms:1500}")
+    private long latencyBudgetMs;
+
+    public RecommendationService(AiService aiService,
+                                 LocalRecommendationEngine localEngine,
+                                 DailyRecommendationRepository dailyRecommendationRepository,
+                                 ObjectMapper objectMapper,
+                                 @Qualifier("aiExecutor") ThreadPoolTaskExecutor aiExecutor,
+                                 @Value("${ai.recommendations.upgrade-max-entries:10000}") int maxUpgrades,
+                                 @Value("${air-quality.cache.cell-size-degrees:0.01}") double cellSize) {
+        this.aiService = aiService;
+        this.localEngine = localEngine;
+        this.dailyRecommendationRepository = dailyRecommendationRepository;
+        this.objectMapper = objectMapper;
+        this.aiExecutor = aiExecutor;
+        this.maxUpgrades = maxUpgrades;
+        this.cellSize = cellSize;
+    }
+
+    public Map<String, Object> recommend(User user, Map<String, Object> airQualityData) {
+        Map<String, Object> precomputed = precomputed(user, airQualityData);
+        if (precomputed != null) {
+            return precomputed;
+        }
+
+        CompletableFuture<Map<String, String>> ai;
+        try {
+            ai = CompletableFuture.supplyAsync(() -> askGemini(user, airQualityData), aiExecutor);
+        } catch (TaskRejectedException e) {
+            return local(user, airQualityData, false);
+        }
+
+        try {
+            return withSource(ai.get(latencyBudgetMs, TimeUnit.MILLISECONDS), "ai");
+        } catch (TimeoutException e) {
+            // Let Gemini finish in the background and keep its answer as an upgrade
+            String key = upgradeKey(user, cellOf(airQualityData));
+            upgrades.remove(key);
+            ai.thenAccept(result -> remember(key, result, Instant.now()));
+            return local(user, airQualityData, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return local(user, airQualityData, false);
+        } catch (ExecutionException e) {
+            System.err.println("⚠️ Gemini recommendations failed, using local engine: " + e.getCause().getMessage());
+            return local(user, airQualityData, false);
+        }
+    }
+
+    /**
+     * The Gemini answer that arrived after the deadline for this user at this location, if any.
+     */
+    public Map<String, Object> latest(User user, Double latitude, Double longitude) {
+        String key = upgradeKey(user, latitude != null && longitude != null
+                ? GridCell.of(latitude, longitude, cellSize).key() : null);
+        Upgrade upgrade = upgrades.get(key);
+        if (upgrade == null || upgrade.expired(Instant.now())) {
+            upgrades.remove(key);
+            return null;
+        }
+        return withSource(upgrade.recommendations(), "ai");
+    }
+
+    @Scheduled(fixedDelayString = "${ai.recommendations.upgrade-sweep-ms:300000}")
+    public void sweepExpiredUpgrades() {
+        sweepExpired(Instant.now());
+    }
+
+    /**
+     * Keep a late Gemini answer under its user and cell key. When the map is full even after
+     * dropping expired entries the answer is discarded; the client simply keeps the local
+     * recommendation.
+     */
+    void remember(String key, Map<String, String> recommendations, Instant now) {
+        if (upgrades.size() >= maxUpgrades && !upgrades.containsKey(key)) {
+            sweepExpired(now);
+            if (upgrades.size() >= maxUpgrades) {
+                return;
+            }
+        }
+        upgrades.put(key, new Upgrade(recommendations, now));
+    }
+
+    void sweepExpired(Instant now) {
+        upgrades.values().removeIf(upgrade -> upgrade.expired(now));
+    }
+
+    int pendingUpgrades() {
+        return upgrades.size();
+    }
+
+    /**
+     * Today's batch-generated recommendation, if still valid. It was written for the worst
+     * forecast hour of the day at the primary location, so it holds for requests in that cell
+     * while the live severity is at or below that level; other places, and air that is worse
+     * than forecast, need a fresh answer.
+     */
+    Map<String, Object> precomputed(User user, Map<String, Object> airQualityData) {
+        try {
+            String cell = cellOf(airQualityData);
+            DailyRecommendation daily = cell != null ? dailyRecommendationRepository.findById(user.getId()).orElse(null) : null;
+            if (daily == null || !cell.equals(daily.getCell()) || daily.getValidUntil().before(new Date())
+                    || LocalRecommendationEngine.severity(airQualityData) > daily.getSeverity()) {
+                return null;
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("primary", daily.getPrimary());
+            result.put("secondary", daily.getSecondary());
+            result.put("source", "precomputed");
+            return result;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Grid cell of the request's "location", or null when the client did not send one.
+     */
+    String cellOf(Map<String, Object> airQualityData) {
+        if (!(airQualityData.get("location") instanceof Map<?, ?> location)
+                || !(location.get("latitude") instanceof Number latitude)
+                || !(location.get("longitude") instanceof Number longitude)) {
+            return null;
+        }
+        return GridCell.of(latitude.doubleValue(), longitude.doubleValue(), cellSize).key();
+    }
+
+    private static String upgradeKey(User user, String cell) {
+        return user.getId() + "|" + (cell != null ? cell : "");
+    }
+
+    private Map<String, String> askGemini(User user, Map<String, Object> airQualityData) {
+        try {
+            String jsonResponse = aiService.getPersonalizedHealthRecommendations(user, airQualityData);
+            return AiService.parseJson(objectMapper, jsonResponse, Map.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Object> local(User user, Map<String, Object> airQualityData, boolean upgradePending) {
+        Map<String, Object> result = withSource(localEngine.recommend(user, airQualityData), "local");
+        result.put("upgradePending", upgradePending);
+        return result;
+    }
+
+    private static Map<String, Object> withSource(Map<String, String> recommendations, String source) {
+        Map<String, Object> result = new HashMap<>(recommendations);
+        result.put("source", source);
+        return result;
+    }
+
+    private record Upgrade(Map<String, String> recommendations, Instant createdAt) {
+        boolean expired(Instant now) {
+            return createdAt.plus(UPGRADE_TTL).isBefore(now);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.sreeshanth.backend.service;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.sreeshanth.backend.model.Report;
+import com.sreeshanth.backend.model.ReportAnalysis;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.repository.ReportAnalysisRepository;
+import com.sreeshanth.backend.repository.UserRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Stores uploaded medical reports in GridFS and analyzes them in the background.
+ *
+ * Uploads are copied to GridFS chunk by chunk, so memory use per upload stays constant. The
+ * user document only keeps a small {@link Report} reference; the summary lives in
+ * {@link ReportAnalysis}. Status changes are conditional updates on the expected previous
+ * status, so a report deleted mid-analysis is not written back and a report already queued
+ * or running cannot be queued a second time.
+ */
+@Service
+public class ReportService {
+
+    private final GridFsTemplate gridFsTemplate;
+    private final ReportAnalysisRepository reportAnalysisRepository;
+    private final UserRepository userRepository;
+    private final AiService aiService;
+    private final MongoTemplate mongoTemplate;
+    private final ThreadPoolTaskExecutor analysisExecutor;
+
+    public ReportService(GridFsTemplate gridFsTemplate,
+                         ReportAnalysisRepository reportAnalysisRepository,
+                         UserRepository userRepository,
+                         AiService aiService,
+                         MongoTemplate mongoTemplate,
+                         @Qualifier("reportAnalysisExecutor") ThreadPoolTaskExecutor analysisExecutor) {
+        this.gridFsTemplate = gridFsTemplate;
+        this.reportAnalysisRepository = reportAnalysisRepository;
+        this.userRepository = userRepository;
+        this.aiService = aiService;
+        this.mongoTemplate = mongoTemplate;
+        this.analysisExecutor = analysisExecutor;
+    }
+
+    public ReportAnalysis upload(User user, InputStream content, String fileName, String contentType) {
+        String uploadDate = Instant.now().toString();
+        ObjectId fileId = gridFsTemplate.store(content, fileName, contentType,
+                new Document("userId", user.getId()).append("uploadDate", uploadDate));
+
+        GridFSFile stored = gridFsTemplate.findOne(query(where("_id").is(fileId)));
+
+        ReportAnalysis report = new ReportAnalysis();
+        report.setUserId(user.getId());
+        report.setFileId(fileId.toHexString());
+        report.setFileName(fileName);
+        report.setContentType(contentType);
+        report.setSize(stored != null ? stored.getLength() : 0);
+        report.setUploadDate(uploadDate);
+        report.setStatus(ReportAnalysis.Status.PENDING);
+        report = reportAnalysisRepository.save(report);
+
+        user.getPastReports().add(new Report(report.getId(), fileName, uploadDate, null));
+        userRepository.save(user);
+
+        return enqueueAnalysis(report);
+    }
+
+    /**
+     * Queue a finished (complete or failed) report for another analysis. Returns empty when the
+     * report is already queued or running.
+     */
+    public Optional<ReportAnalysis> reanalyze(ReportAnalysis report) {
+        boolean requeued = transition(report.getId(), List.of(ReportAnalysis.Status.COMPLETE, ReportAnalysis.Status.FAILED),
+                new Update().set("status", ReportAnalysis.Status.PENDING).unset("error"));
+        if (!requeued) {
+            return Optional.empty();
+        }
+        report.setStatus(ReportAnalysis.Status.PENDING);
+        report.setError(null);
+        return Optional.of(enqueueAnalysis(report));
+    }
+
+    /**
+     * Queue a pending report for analysis. When the queue is full the report is marked failed
+     * right away so the caller gets a quick answer and can retry later.
+     */
+    private ReportAnalysis enqueueAnalysis(ReportAnalysis report) {
+        String reportId = report.getId();
+        try {
+            analysisExecutor.execute(() -> analyze(reportId));
+        } catch (TaskRejectedException e) {
+            report.setStatus(ReportAnalysis.Status.FAILED);
+            report.setError("Analysis queue is full, please retry later.");
+            transition(reportId, List.of(ReportAnalysis.Status.PENDING),
+                    new Update().set("status", report.getStatus()).set("error", report.getError()));
+        }
+        return report;
+    }
+
+    public List<ReportAnalysis> findAll(User user) {
+        return reportAnalysisRepository.findByUserIdOrderByUploadDateDesc(user.getId());
+    }
+
+    public Optional<ReportAnalysis> find(User user, String reportId) {
+        return reportAnalysisRepository.findById(reportId)
+                .filter(report -> report.getUserId().equals(user.getId()));
+    }
+
+    public GridFsResource openFile(ReportAnalysis report) {
+        GridFSFile file = gridFsTemplate.findOne(query(where("_id").is(new ObjectId(report.getFileId()))));
+        return file != null ? gridFsTemplate.getResource(file) : null;
+    }
+
+    public void delete(User user, ReportAnalysis report) {
+        gridFsTemplate.delete(query(where("_id").is(new ObjectId(report.getFileId()))));
+        reportAnalysisRepository.delete(report);
+        user.getPastReports().removeIf(ref -> report.getId().equals(ref.getId()));
+        userRepository.save(user);
+    }
+
+    void analyze(String reportId) {
+        ReportAnalysis report = reportAnalysisRepository.findById(reportId).orElse(null);
+        if (report == null || !transition(reportId, List.of(ReportAnalysis.Status.PENDING),
+                new Update().set("status", ReportAnalysis.Status.PROCESSING))) {
+            return; // Deleted while queued
+        }
+
+        Update result = new Update();
+        Path temp = null;
+        try {
+            GridFsResource resource = openFile(report);
+            if (resource == null) {
+                throw new IOException("Report file is missing");
+            }
+
+            // Spool to disk so the Gemini upload streams from a file rather than a byte array
+            temp = Files.createTempFile("report-", "-" + reportId);
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            result.set("summary", aiService.summarizeReport(temp, report.getContentType()))
+                    .set("status", ReportAnalysis.Status.COMPLETE)
+                    .set("analyzedAt", Instant.now().toString());
+        } catch (Exception e) {
+            System.err.println("❌ Report analysis failed for " + reportId + ": " + e.getMessage());
+            result.set("status", ReportAnalysis.Status.FAILED)
+                    .set("error", e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        if (!transition(reportId, List.of(ReportAnalysis.Status.PROCESSING), result)) {
+            System.out.println("⚠️ Report " + reportId + " was deleted during analysis; result dropped");
+        }
+    }
+
+    /**
+     * Apply update only while the report still exists in one of the expected statuses.
+     */
+    private boolean transition(String reportId, List<ReportAnalysis.Status> from, Update update) {
+        return mongoTemplate.updateFirst(query(where("_id").is(reportId).and("status").in(from)),
+                update, ReportAnalysis.class).getMatchedCount() > 0;
+    }
+}
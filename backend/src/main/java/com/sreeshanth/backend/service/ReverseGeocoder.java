@@ -0,0 +1,94 @@
+package com.sreeshanth.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Offline reverse geocoder backed by a GeoNames-style gazetteer (tab separated: id, name,
+ * asciiname, alternatenames, latitude, longitude, feature class, feature code, country code,
+ * ...), e.g. cities500.txt. The file is loaded once at startup into a {@link PlaceIndex};
+ * lookups never touch the network.
+ */
+@Service
+public class ReverseGeocoder {
+
+    @Value("${geocoder.gazetteer.path:}")
+    private String gazetteerPath;
+
+    private volatile PlaceIndex index;
+
+    @PostConstruct
+    void load() {
+        if (gazetteerPath == null || gazetteerPath.isBlank()) {
+            System.out.println("⚠️ No gazetteer configured, reverse geocoding falls back to coordinates");
+            return;
+        }
+
+        long start = System.nanoTime();
+        float[] latitudes = new float[1 << 16];
+        float[] longitudes = new float[1 << 16];
+        String[] names = new String[1 << 16];
+        int size = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(gazetteerPath), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", 10);
+                if (columns.length < 9) {
+                    continue;
+                }
+                if (size == names.length) {
+                    latitudes = Arrays.copyOf(latitudes, size * 2);
+                    longitudes = Arrays.copyOf(longitudes, size * 2);
+                    names = Arrays.copyOf(names, size * 2);
+                }
+                try {
+                    latitudes[size] = Float.parseFloat(columns[4]);
+                    longitudes[size] = Float.parseFloat(columns[5]);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                names[size] = columns[8].isEmpty() ? columns[1] : columns[1] + ", " + columns[8];
+                size++;
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Failed to load gazetteer " + gazetteerPath + ": " + e.getMessage());
+            return;
+        }
+
+        index = PlaceIndex.build(latitudes, longitudes, names, size);
+        System.out.println("✓ Loaded " + size + " places for reverse geocoding in "
+                + (System.nanoTime() - start) / 1_000_000 + "ms");
+    }
+
+    public boolean isAvailable() {
+        return index != null && index.size() > 0;
+    }
+
+    /**
+     * Nearest known place to the given point, or null when no gazetteer is loaded.
+     */
+    public Place nearest(double latitude, double longitude) {
+        PlaceIndex current = index;
+        if (current == null) {
+            return null;
+        }
+        int i = current.nearest(latitude, longitude);
+        if (i < 0) {
+            return null;
+        }
+        return new Place(current.name(i), current.latitude(i), current.longitude(i),
+                current.distanceKm(i, latitude, longitude));
+    }
+
+    public record Place(String name, double latitude, double longitude, double distanceKm) {
+    }
+}
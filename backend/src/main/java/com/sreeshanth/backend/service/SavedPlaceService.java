@@ -0,0 +1,199 @@
+package com.sreeshanth.backend.service;
+
+import com.sreeshanth.backend.model.Location;
+import com.sreeshanth.backend.model.SavedPlace;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.repository.SavedPlaceRepository;
+import com.sreeshanth.backend.repository.UserRepository;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.geo.Circle;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the flattened saved_locations collection in step with users' embedded locations and
+ * answers area queries against its 2dsphere index, so "who has places near here" no longer
+ * scans the users collection.
+ */
+@Service
+public class SavedPlaceService {
+
+    // Half the Earth's circumference; "no limit" for nearest-place queries
+    private static final Distance ANY_DISTANCE = new Distance(20_000, Metrics.KILOMETERS);
+    private static final String BACKFILL_LOCK = "saved-places-backfill";
+
+    private final SavedPlaceRepository savedPlaceRepository;
+    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final JobLock jobLock;
+
+    public SavedPlaceService(SavedPlaceRepository savedPlaceRepository, UserRepository userRepository,
+                             MongoTemplate mongoTemplate, JobLock jobLock) {
+        this.savedPlaceRepository = savedPlaceRepository;
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.jobLock = jobLock;
+    }
+
+    /**
+     * Rewrite this user's places from their primary and saved locations. The new places are
+     * written before the ones no longer present are removed, so a concurrent reader sees the
+     * old set, the new set or their union, never an empty one. Failures are logged rather
+     * than thrown, so a profile update never fails because of the index.
+     */
+    public void sync(User user) {
+        try {
+            List<SavedPlace> places = new ArrayList<>();
+            Date now = new Date();
+            if (hasCoordinates(user.getPrimaryLocation())) {
+                places.add(place(user.getId(), user.getId() + ":primary", "primary", user.getPrimaryLocation(), now));
+            }
+            List<Location> saved = user.getSavedLocations();
+            for (int i = 0; i < saved.size(); i++) {
+                if (hasCoordinates(saved.get(i))) {
+                    places.add(place(user.getId(), user.getId() + ":saved:" + i, "saved", saved.get(i), now));
+                }
+            }
+            savedPlaceRepository.saveAll(places);
+            savedPlaceRepository.deleteByUserIdAndIdNotIn(user.getId(),
+                    places.stream().map(SavedPlace::getId).toList());
+        } catch (Exception e) {
+            System.err.println("⚠️ Failed to index locations for user " + user.getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Index users with locations but no places in the background, so startup is not held up
+     * on large user bases.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        Thread.ofVirtual().name("saved-places-backfill").start(this::backfillMissing);
+    }
+
+    /**
+     * Sync every user who has a location with coordinates but nothing in saved_locations,
+     * which covers a fresh collection as well as users a failed sync left out. Mongo selects
+     * those users, so a deploy with everything indexed reads no user documents. Only one node
+     * runs it at a time. Returns the number of users synced.
+     */
+    int backfillMissing() {
+        if (!jobLock.tryAcquire(BACKFILL_LOCK, Duration.ofHours(1))) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        int users = 0;
+        try (Stream<User> missing = userRepository.findWithoutSavedPlaces()) {
+            Iterator<User> iterator = missing.iterator();
+            while (iterator.hasNext()) {
+                sync(iterator.next());
+                users++;
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Saved places backfill stopped: " + e.getMessage());
+        } finally {
+            jobLock.release(BACKFILL_LOCK);
+        }
+        System.out.println("✓ Indexed saved places for " + users + " users in "
+                + (System.currentTimeMillis() - start) + "ms");
+        return users;
+    }
+
+    /**
+     * Places within radiusKm of the point, nearest first.
+     */
+    public List<Map<String, Object>> near(double latitude, double longitude, double radiusKm, int limit) {
+        return savedPlaceRepository.findByPointNear(new GeoJsonPoint(longitude, latitude),
+                        new Distance(radiusKm, Metrics.KILOMETERS), PageRequest.of(0, limit))
+                .getContent().stream()
+                .map(SavedPlaceService::view)
+                .toList();
+    }
+
+    /**
+     * Places inside the lat/lng box, unordered.
+     */
+    public List<Map<String, Object>> within(double south, double west, double north, double east, int limit) {
+        GeoJsonPolygon box = new GeoJsonPolygon(
+                new GeoJsonPoint(west, south), new GeoJsonPoint(east, south),
+                new GeoJsonPoint(east, north), new GeoJsonPoint(west, north),
+                new GeoJsonPoint(west, south));
+        return savedPlaceRepository.findByPointWithin(box, PageRequest.of(0, limit)).stream()
+                .map(place -> view(place, null))
+                .toList();
+    }
+
+    /**
+     * Ids of up to limit users with a primary or saved location within radiusKm of the point.
+     */
+    public List<String> usersNear(double latitude, double longitude, double radiusKm, int limit) {
+        Circle area = new Circle(new GeoJsonPoint(longitude, latitude), new Distance(radiusKm, Metrics.KILOMETERS));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("point").withinSphere(area)),
+                Aggregation.group("userId"),
+                Aggregation.limit(limit));
+        return mongoTemplate.aggregate(aggregation, SavedPlace.class, Document.class)
+                .getMappedResults().stream()
+                .map(group -> group.getString("_id"))
+                .toList();
+    }
+
+    /**
+     * This user's place closest to the point, or null when they have none.
+     */
+    public Map<String, Object> nearestForUser(String userId, double latitude, double longitude) {
+        return savedPlaceRepository.findByUserIdAndPointNear(userId, new GeoJsonPoint(longitude, latitude), ANY_DISTANCE)
+                .getContent().stream()
+                .findFirst()
+                .map(SavedPlaceService::view)
+                .orElse(null);
+    }
+
+    private static boolean hasCoordinates(Location location) {
+        return location != null && location.getLatitude() != null && location.getLongitude() != null;
+    }
+
+    private static SavedPlace place(String userId, String id, String kind, Location location, Date now) {
+        SavedPlace place = new SavedPlace();
+        place.setId(id);
+        place.setUserId(userId);
+        place.setKind(kind);
+        place.setName(location.getName());
+        place.setAddress(location.getAddress());
+        place.setPoint(new GeoJsonPoint(location.getLongitude(), location.getLatitude()));
+        place.setUpdatedAt(now);
+        return place;
+    }
+
+    private static Map<String, Object> view(GeoResult<SavedPlace> result) {
+        return view(result.getContent(), Math.round(result.getDistance().getValue() * 100) / 100.0);
+    }
+
+    private static Map<String, Object> view(SavedPlace place, Double distanceKm) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("userId", place.getUserId());
+        view.put("kind", place.getKind());
+        view.put("name", place.getName());
+        view.put("address", place.getAddress());
+        view.put("latitude", place.getPoint().getY());
+        view.put("longitude", place.getPoint().getX());
+        if (distanceKm != null) {
+            view.put("distanceKm", distanceKm);
+        }
+        return view;
+    }
+}
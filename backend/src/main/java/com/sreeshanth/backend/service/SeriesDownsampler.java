@@ -0,0 +1,69 @@
+package com.sreeshanth.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling for evenly spaced series (hourly readings).
+ * Keeps the original points that best preserve the visual shape, including peaks and dips.
+ */
+public final class SeriesDownsampler {
+
+    private SeriesDownsampler() {
+    }
+
+    public static <T> List<T> lttb(List<T> points, ToDoubleFunction<T> value, int threshold) {
+        int size = points.size();
+        if (threshold >= size || threshold < 3) {
+            return points;
+        }
+
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            y[i] = value.applyAsDouble(points.get(i));
+        }
+
+        List<T> sampled = new ArrayList<>(threshold);
+        sampled.add(points.get(0));
+
+        // First and last points are always kept; the rest is split into threshold - 2 buckets
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+        int selected = 0;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket acts as the third triangle vertex
+            int nextStart = end;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += i;
+                avgY += y[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((selected - avgX) * (y[i] - y[selected])
+                        - (selected - i) * (avgY - y[selected]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+
+            sampled.add(points.get(maxIndex));
+            selected = maxIndex;
+        }
+
+        sampled.add(points.get(size - 1));
+        return sampled;
+    }
+}
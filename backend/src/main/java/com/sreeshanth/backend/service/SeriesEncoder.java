@@ -0,0 +1,280 @@
+package com.sreeshanth.backend.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Compact columnar encoding of a history or forecast response, for chart clients that send
+ * {@code Accept: application/vnd.breathesmart.aq-series}.
+ *
+ * Instead of one object per hour repeating every key, the series is written as parallel
+ * primitive columns: a base timestamp plus per-hour deltas, then per index an AQI column and
+ * dictionary ids for category and dominant pollutant, per pollutant a float concentration
+ * column, and per health-recommendation group a column of text ids. Every string (codes,
+ * names, categories, advice) is written once in a dictionary up front. All numbers are
+ * big-endian, which is what DataView reads by default. The header carries the stale-serving
+ * markers added by AirQualityCache, so series clients see them as JSON clients do.
+ *
+ * <pre>
+ * "AQS" u8 version
+ * u32 hours, u16 listName, u16 regionCode, i32 totalHours (-1 if absent)
+ * u8 stale (1 = served past its TTL), u16 fetchedAt (ISO-8601), i32 ageSeconds (-1 if absent)
+ * u16 dictionarySize, then per entry u16 byteLength + UTF-8 bytes
+ * i64 firstEpochSecond, i32[hours] secondsSincePreviousHour
+ * u8 indexCount, then per index:
+ *     u16 code, u16 displayName, i16[hours] aqi (-32768 = missing),
+ *     u16[hours] category, u16[hours] dominantPollutant, u8[hours * 3] rgb
+ * u8 pollutantCount, then per pollutant:
+ *     u16 code, u16 displayName, u16 fullName, u16 units, f32[hours] value (NaN = missing)
+ * u8 healthGroupCount, then per group: u16 group, u16[hours] text
+ * </pre>
+ * String references are dictionary ids; 0xFFFF means absent.
+ */
+public final class SeriesEncoder {
+
+    public static final String MEDIA_TYPE = "application/vnd.breathesmart.aq-series";
+    public static final int VERSION = 2;
+
+    private static final int NONE = 0xFFFF;
+    private static final short MISSING_AQI = Short.MIN_VALUE;
+
+    private SeriesEncoder() {
+    }
+
+    /**
+     * A history or forecast response that may be sent in this format. It serializes to JSON
+     * exactly like the map it copies; marking the type lets the message converter leave every
+     * other response (errors in particular) to JSON.
+     */
+    public static final class Series extends LinkedHashMap<String, Object> {
+        public Series(Map<String, Object> response) {
+            super(response);
+        }
+    }
+
+    /**
+     * Encode the hour list found under "hoursInfo" or "hourlyForecasts" (an empty series when
+     * neither is present) and write it to out. The stream is flushed, not closed.
+     */
+    @SuppressWarnings("unchecked")
+    public static void write(Map<String, Object> response, OutputStream out) throws IOException {
+        String listName = response.containsKey("hoursInfo") ? "hoursInfo" : "hourlyForecasts";
+        List<Map<String, Object>> hours = response.get(listName) instanceof List<?> list
+                ? (List<Map<String, Object>>) list
+                : List.of();
+        int n = hours.size();
+
+        Dictionary dictionary = new Dictionary();
+        int listNameId = dictionary.id(listName);
+        int regionCodeId = dictionary.id(response.get("regionCode"));
+        int totalHours = response.get("totalHours") instanceof Number total ? total.intValue() : -1;
+        boolean stale = Boolean.TRUE.equals(response.get("stale"));
+        int fetchedAtId = dictionary.id(response.get("fetchedAt"));
+        int ageSeconds = response.get("ageSeconds") instanceof Number age ? (int) Math.min(Integer.MAX_VALUE, age.longValue()) : -1;
+
+        long[] epochSeconds = new long[n];
+        Map<String, IndexColumn> indexColumns = new LinkedHashMap<>();
+        Map<String, PollutantColumn> pollutantColumns = new LinkedHashMap<>();
+        Map<Integer, int[]> healthColumns = new LinkedHashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> hour = hours.get(i);
+            epochSeconds[i] = epochSecondOf(hour.get("dateTime"), i > 0 ? epochSeconds[i - 1] : 0);
+
+            if (hour.get("indexes") instanceof List<?> indexes) {
+                for (Object item : indexes) {
+                    Map<String, Object> index = (Map<String, Object>) item;
+                    String code = String.valueOf(index.get("code"));
+                    IndexColumn column = indexColumns.computeIfAbsent(code,
+                            c -> new IndexColumn(n, dictionary.id(c), dictionary.id(index.get("displayName"))));
+                    column.set(i, index, dictionary);
+                }
+            }
+
+            if (hour.get("pollutants") instanceof List<?> pollutants) {
+                for (Object item : pollutants) {
+                    Map<String, Object> pollutant = (Map<String, Object>) item;
+                    Map<String, Object> concentration = pollutant.get("concentration") instanceof Map<?, ?> c
+                            ? (Map<String, Object>) c
+                            : Map.of();
+                    String code = String.valueOf(pollutant.get("code"));
+                    PollutantColumn column = pollutantColumns.computeIfAbsent(code,
+                            c -> new PollutantColumn(n, dictionary.id(c), dictionary.id(pollutant.get("displayName")),
+                                    dictionary.id(pollutant.get("fullName")), dictionary.id(concentration.get("units"))));
+                    if (concentration.get("value") instanceof Number value) {
+                        column.values[i] = value.floatValue();
+                    }
+                }
+            }
+
+            if (hour.get("healthRecommendations") instanceof Map<?, ?> health) {
+                for (Map.Entry<?, ?> entry : health.entrySet()) {
+                    int[] column = healthColumns.computeIfAbsent(dictionary.id(entry.getKey()), key -> filled(n));
+                    column[i] = dictionary.id(entry.getValue());
+                }
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 8192));
+        data.writeBytes("AQS");
+        data.writeByte(VERSION);
+        data.writeInt(n);
+        data.writeShort(listNameId);
+        data.writeShort(regionCodeId);
+        data.writeInt(totalHours);
+        data.writeByte(stale ? 1 : 0);
+        data.writeShort(fetchedAtId);
+        data.writeInt(ageSeconds);
+        dictionary.writeTo(data);
+
+        data.writeLong(n > 0 ? epochSeconds[0] : 0);
+        for (int i = 0; i < n; i++) {
+            data.writeInt(i == 0 ? 0 : (int) (epochSeconds[i] - epochSeconds[i - 1]));
+        }
+
+        data.writeByte(indexColumns.size());
+        for (IndexColumn column : indexColumns.values()) {
+            column.writeTo(data);
+        }
+
+        data.writeByte(pollutantColumns.size());
+        for (PollutantColumn column : pollutantColumns.values()) {
+            column.writeTo(data);
+        }
+
+        data.writeByte(healthColumns.size());
+        for (Map.Entry<Integer, int[]> column : healthColumns.entrySet()) {
+            data.writeShort(column.getKey());
+            for (int textId : column.getValue()) {
+                data.writeShort(textId);
+            }
+        }
+        data.flush();
+    }
+
+    private static long epochSecondOf(Object dateTime, long fallback) {
+        try {
+            return Instant.parse(String.valueOf(dateTime)).getEpochSecond();
+        } catch (Exception e) {
+            return fallback;
+        }
+    }
+
+    private static int[] filled(int n) {
+        int[] ids = new int[n];
+        Arrays.fill(ids, NONE);
+        return ids;
+    }
+
+    private static int channel(Object value) {
+        return value instanceof Number number ? (int) Math.round(Math.max(0, Math.min(1, number.doubleValue())) * 255) : 0;
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<byte[]> entries = new ArrayList<>();
+
+        int id(Object value) {
+            if (value == null) {
+                return NONE;
+            }
+            return ids.computeIfAbsent(value.toString(), text -> {
+                if (entries.size() == NONE) {
+                    throw new IllegalStateException("Series has too many distinct strings to encode");
+                }
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                // Lengths are u16; advice texts are a few hundred bytes, so this only guards odd input
+                entries.add(bytes.length > NONE ? Arrays.copyOf(bytes, NONE) : bytes);
+                return entries.size() - 1;
+            });
+        }
+
+        void writeTo(DataOutputStream data) throws IOException {
+            data.writeShort(entries.size());
+            for (byte[] entry : entries) {
+                data.writeShort(entry.length);
+                data.write(entry);
+            }
+        }
+    }
+
+    private static final class IndexColumn {
+        private final int codeId;
+        private final int displayNameId;
+        private final short[] aqi;
+        private final int[] category;
+        private final int[] dominantPollutant;
+        private final byte[] rgb;
+
+        private IndexColumn(int n, int codeId, int displayNameId) {
+            this.codeId = codeId;
+            this.displayNameId = displayNameId;
+            this.aqi = new short[n];
+            Arrays.fill(aqi, MISSING_AQI);
+            this.category = filled(n);
+            this.dominantPollutant = filled(n);
+            this.rgb = new byte[n * 3];
+        }
+
+        private void set(int i, Map<String, Object> index, Dictionary dictionary) {
+            if (index.get("aqi") instanceof Number value) {
+                aqi[i] = (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, value.intValue()));
+            }
+            category[i] = dictionary.id(index.get("category"));
+            dominantPollutant[i] = dictionary.id(index.get("dominantPollutant"));
+            if (index.get("color") instanceof Map<?, ?> color) {
+                // The API omits zero channels
+                rgb[i * 3] = (byte) channel(color.get("red"));
+                rgb[i * 3 + 1] = (byte) channel(color.get("green"));
+                rgb[i * 3 + 2] = (byte) channel(color.get("blue"));
+            }
+        }
+
+        private void writeTo(DataOutputStream data) throws IOException {
+            data.writeShort(codeId);
+            data.writeShort(displayNameId);
+            for (short value : aqi) {
+                data.writeShort(value);
+            }
+            for (int id : category) {
+                data.writeShort(id);
+            }
+            for (int id : dominantPollutant) {
+                data.writeShort(id);
+            }
+            data.write(rgb);
+        }
+    }
+
+    private static final class PollutantColumn {
+        private final int codeId;
+        private final int displayNameId;
+        private final int fullNameId;
+        private final int unitsId;
+        private final float[] values;
+
+        private PollutantColumn(int n, int codeId, int displayNameId, int fullNameId, int unitsId) {
+            this.codeId = codeId;
+            this.displayNameId = displayNameId;
+            this.fullNameId = fullNameId;
+            this.unitsId = unitsId;
+            this.values = new float[n];
+            Arrays.fill(values, Float.NaN);
+        }
+
+        private void writeTo(DataOutputStream data) throws IOException {
+            data.writeShort(codeId);
+            data.writeShort(displayNameId);
+            data.writeShort(fullNameId);
+            data.writeShort(unitsId);
+            for (float value : values) {
+                data.writeFloat(value);
+            }
+        }
+    }
+}
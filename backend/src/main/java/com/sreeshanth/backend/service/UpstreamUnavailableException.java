@@ -0,0 +1,18 @@
+package com.sreeshanth.backend.service;
+
+/**
+ * Thrown instead of calling an upstream API whose circuit breaker is open.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UpstreamUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,63 @@
+package com.sreeshanth.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptCostTunerTests {
+
+	@Test
+	void tunedStrengthStaysWithinBounds() {
+		assertEquals(BCryptCostTuner.MIN_STRENGTH, BCryptCostTuner.tune(1));
+		assertEquals(BCryptCostTuner.MAX_STRENGTH, BCryptCostTuner.tune(10_000_000));
+	}
+
+	@Test
+	void readsStrengthFromHash() {
+		assertEquals(4, BCryptCostTuner.strengthOf(new BCryptPasswordEncoder(4).encode("secret")));
+		assertEquals(12, BCryptCostTuner.strengthOf("$2a$12$abcdefghijklmnopqrstuv"));
+		assertEquals(-1, BCryptCostTuner.strengthOf("plaintext"));
+		assertEquals(-1, BCryptCostTuner.strengthOf(null));
+	}
+
+	@Test
+	void upgradesOnlyHashesBelowTheFloor() {
+		PasswordEncoder encoder = ApplicationConfig.delegatingEncoder(5, 5, true);
+
+		String weak = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+		String atFloor = encoder.encode("secret");
+		String stronger = "{bcrypt}" + new BCryptPasswordEncoder(6).encode("secret");
+
+		assertTrue(encoder.upgradeEncoding(weak));
+		assertFalse(encoder.upgradeEncoding(atFloor));
+		// A node configured with a lower strength must not rehash another node's stronger hash
+		assertFalse(encoder.upgradeEncoding(stronger));
+		assertTrue(encoder.matches("secret", stronger));
+	}
+
+	@Test
+	void upgradesLegacyPlaintext() {
+		PasswordEncoder encoder = ApplicationConfig.delegatingEncoder(5, 5, true);
+		assertTrue(encoder.matches("secret", "secret"));
+		assertFalse(encoder.matches("guess", "secret"));
+		assertTrue(encoder.upgradeEncoding("secret"));
+	}
+
+	@Test
+	void onlyTreatsUnprefixedNonHashesAsPlaintext() {
+		PasswordEncoder encoder = ApplicationConfig.delegatingEncoder(5, 5, true);
+		String unprefixedHash = new BCryptPasswordEncoder(4).encode("secret");
+
+		assertFalse(encoder.matches(unprefixedHash, unprefixedHash));
+		assertFalse(encoder.matches("{noop}secret", "{noop}secret"));
+	}
+
+	@Test
+	void rejectsPlaintextOnceTheMigrationIsOver() {
+		PasswordEncoder encoder = ApplicationConfig.delegatingEncoder(5, 5, false);
+		assertFalse(encoder.matches("secret", "secret"));
+		assertTrue(encoder.matches("secret", encoder.encode("secret")));
+	}
+}
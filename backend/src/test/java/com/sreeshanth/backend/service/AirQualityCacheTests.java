@@ -0,0 +1,184 @@
+package com.sreeshanth.backend.service;
+
+import com.sreeshanth.backend.model.CachedResponse;
+import com.sreeshanth.backend.repository.CachedResponseRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AirQualityCacheTests {
+
+	private static final Duration TTL = Duration.ofMinutes(10);
+
+	private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+	private final List<Runnable> refreshes = new ArrayList<>();
+	private final AirQualityCache cache = new AirQualityCache(sharedLevel(), null, refreshes::add,
+			100, 30, 10, 6, clock);
+
+	@Test
+	void servesFreshCopyUntilExpiry() {
+		CountingLoader loader = new CountingLoader();
+		cache.get("current:a", TTL, loader);
+
+		clock.advance(TTL.minusMillis(1));
+		Map<String, Object> cached = cache.get("current:a", TTL, loader);
+		assertEquals(1, loader.calls.get());
+		assertNull(cached.get("stale"));
+
+		// Expiry is exclusive: at expiresAt the copy is already stale
+		clock.advance(Duration.ofMillis(1));
+		assertEquals(true, cache.get("current:a", TTL, loader).get("stale"));
+	}
+
+	@Test
+	void servesStaleWhileOneBackgroundRefreshRuns() {
+		CountingLoader loader = new CountingLoader();
+		cache.get("current:a", TTL, loader);
+		clock.advance(TTL.plusMinutes(5));
+
+		Map<String, Object> first = cache.get("current:a", TTL, loader);
+		Map<String, Object> second = cache.get("current:a", TTL, loader);
+		assertEquals(true, first.get("stale"));
+		assertEquals(Duration.ofMinutes(15).toSeconds(), first.get("ageSeconds"));
+		assertEquals(true, second.get("stale"));
+		assertEquals(1, refreshes.size(), "only one refresh is queued per key");
+		assertEquals(1, loader.calls.get(), "callers did not wait for upstream");
+
+		refreshes.remove(0).run();
+		assertEquals(2, loader.calls.get());
+		Map<String, Object> refreshed = cache.get("current:a", TTL, loader);
+		assertNull(refreshed.get("stale"));
+		assertEquals(2, refreshed.get("load"));
+	}
+
+	@Test
+	void servesStaleCopyWhenUpstreamFailsAfterTheRevalidateWindow() {
+		cache.get("current:a", TTL, new CountingLoader());
+		clock.advance(TTL.plusMinutes(30));
+
+		Map<String, Object> fallback = cache.get("current:a", TTL, () -> {
+			throw new IllegalStateException("upstream down");
+		});
+		assertEquals(true, fallback.get("stale"));
+		assertEquals(1, fallback.get("load"));
+		assertTrue(refreshes.isEmpty(), "past the revalidate window the caller loads itself");
+	}
+
+	@Test
+	void failsOnceTheStaleCopyIsTooOld() {
+		cache.get("current:a", TTL, new CountingLoader());
+		clock.advance(TTL.plusHours(6));
+
+		assertThrows(IllegalStateException.class, () -> cache.get("current:a", TTL, () -> {
+			throw new IllegalStateException("upstream down");
+		}));
+	}
+
+	@Test
+	void concurrentMissesShareOneUpstreamLoad() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountingLoader counter = new CountingLoader();
+		Supplier<Map<String, Object>> slowLoader = () -> {
+			loading.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return counter.get();
+		};
+
+		ExecutorService callers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Map<String, Object>>> results = new ArrayList<>();
+			results.add(callers.submit(() -> cache.get("current:a", TTL, slowLoader)));
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+			for (int i = 0; i < 3; i++) {
+				results.add(callers.submit(() -> cache.get("current:a", TTL, slowLoader)));
+			}
+			Thread.sleep(100); // Let the other callers reach the in-flight load
+			release.countDown();
+			for (Future<Map<String, Object>> result : results) {
+				assertEquals(1, result.get(5, TimeUnit.SECONDS).get("load"));
+			}
+		} finally {
+			callers.shutdownNow();
+		}
+		assertEquals(1, counter.calls.get());
+	}
+
+	/**
+	 * In-memory stand-in for the shared Mongo level.
+	 */
+	private static CachedResponseRepository sharedLevel() {
+		Map<String, CachedResponse> documents = new ConcurrentHashMap<>();
+		CachedResponseRepository repository = mock(CachedResponseRepository.class);
+		when(repository.findById(anyString()))
+				.thenAnswer(call -> Optional.ofNullable(documents.get(call.<String>getArgument(0))));
+		when(repository.save(any(CachedResponse.class))).thenAnswer(call -> {
+			CachedResponse document = call.getArgument(0);
+			documents.put(document.getKey(), document);
+			return document;
+		});
+		return repository;
+	}
+
+	private static final class CountingLoader implements Supplier<Map<String, Object>> {
+		private final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public Map<String, Object> get() {
+			return Map.of("load", calls.incrementAndGet());
+		}
+	}
+
+	private static final class MutableClock extends Clock {
+		private Instant now;
+
+		private MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+}
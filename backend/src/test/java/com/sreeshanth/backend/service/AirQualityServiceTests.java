@@ -0,0 +1,16 @@
+package com.sreeshanth.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AirQualityServiceTests {
+
+	@Test
+	void clampsHistoryRangeToUpstreamRetention() {
+		assertEquals(24, AirQualityService.historyHours(24));
+		assertEquals(AirQualityService.MAX_HISTORY_HOURS, AirQualityService.historyHours(1_000_000));
+		assertEquals(1, AirQualityService.historyHours(0));
+		assertEquals(1, AirQualityService.historyHours(-5));
+	}
+}
@@ -0,0 +1,26 @@
+package com.sreeshanth.backend.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hourly readings shaped like the upstream hoursInfo / hourlyForecasts entries, for tests.
+ */
+final class AqReadings {
+
+	private AqReadings() {
+	}
+
+	static Map<String, Object> hour(String dateTime, int aqi, double pm25) {
+		return hour(dateTime, aqi, "Moderate", pm25);
+	}
+
+	static Map<String, Object> hour(String dateTime, int aqi, String category, double pm25) {
+		return Map.of(
+				"dateTime", dateTime,
+				"indexes", List.of(Map.of("code", "ind_cpcb", "displayName", "AQI (IN)", "aqi", aqi,
+						"category", category, "dominantPollutant", "pm25", "color", Map.of("red", 1, "green", 0.5))),
+				"pollutants", List.of(Map.of("code", "pm25", "displayName", "PM2.5",
+						"concentration", Map.of("value", pm25, "units", "MICROGRAMS_PER_CUBIC_METER"))));
+	}
+}
@@ -0,0 +1,81 @@
+package com.sreeshanth.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static com.sreeshanth.backend.service.AqReadings.hour;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class AqiInterpolationServiceTests {
+
+	@Test
+	void weightsCloserNeighboursMore() {
+		List<AqiInterpolationService.Neighbour> neighbours = List.of(
+				new AqiInterpolationService.Neighbour(hour("2025-01-01T00:00:00Z", 100, "Satisfactory", 40), 1.0),
+				new AqiInterpolationService.Neighbour(hour("2025-01-01T00:00:00Z", 200, "Moderate", 80), 2.0));
+
+		Map<String, Object> estimate = AqiInterpolationService.interpolate(neighbours, 0.8);
+
+		// Weights 1 and 1/4: (100 + 200 / 4) / 1.25 = 120
+		Map<String, Object> index = ((List<Map<String, Object>>) estimate.get("indexes")).get(0);
+		assertEquals(120L, index.get("aqi"));
+		assertEquals("Satisfactory", index.get("category"));
+
+		Map<String, Object> pollutant = ((List<Map<String, Object>>) estimate.get("pollutants")).get(0);
+		assertEquals(48.0, ((Map<String, Object>) pollutant.get("concentration")).get("value"));
+		assertEquals(true, estimate.get("interpolated"));
+	}
+
+	@Test
+	void confidenceDropsWithDistanceAndSparseness() {
+		List<AqiInterpolationService.Neighbour> close = List.of(
+				new AqiInterpolationService.Neighbour(hour("2025-01-01T00:00:00Z", 100, "Satisfactory", 40), 0.5),
+				new AqiInterpolationService.Neighbour(hour("2025-01-01T00:00:00Z", 100, "Satisfactory", 40), 1.0),
+				new AqiInterpolationService.Neighbour(hour("2025-01-01T00:00:00Z", 100, "Satisfactory", 40), 1.0),
+				new AqiInterpolationService.Neighbour(hour("2025-01-01T00:00:00Z", 100, "Satisfactory", 40), 1.5),
+				new AqiInterpolationService.Neighbour(hour("2025-01-01T00:00:00Z", 100, "Satisfactory", 40), 1.5),
+				new AqiInterpolationService.Neighbour(hour("2025-01-01T00:00:00Z", 100, "Satisfactory", 40), 2.0));
+		List<AqiInterpolationService.Neighbour> far = List.of(
+				new AqiInterpolationService.Neighbour(hour("2025-01-01T00:00:00Z", 100, "Satisfactory", 40), 4.5));
+
+		assertEquals(0.9, AqiInterpolationService.confidence(close, 3, 5), 1e-9);
+		assertTrue(AqiInterpolationService.confidence(far, 3, 5) < 0.1);
+		assertEquals(0, AqiInterpolationService.confidence(List.of(), 3, 5));
+	}
+
+	@Test
+	void servesTheOwnCellDirectlyOnlyWithinItsTtl() {
+		Map<String, Double> point = Map.of("latitude", 12.975, "longitude", 77.595);
+		String ownKey = "current:" + GridCell.of(12.975, 77.595, 0.01).key();
+		Map<String, Object> cachedReading = hour("2025-01-01T00:00:00Z", 120, 50);
+		Map<String, Object> refreshed = Map.of("stale", true);
+
+		AirQualityCache cache = mock(AirQualityCache.class);
+		AirQualityService airQualityService = mock(AirQualityService.class);
+		when(airQualityService.getCurrentConditions(point)).thenReturn(refreshed);
+		AqiInterpolationService service = new AqiInterpolationService(cache, airQualityService);
+		ReflectionTestUtils.setField(service, "cellSize", 0.01);
+		ReflectionTestUtils.setField(service, "radiusCells", 1);
+		ReflectionTestUtils.setField(service, "maxAgeMinutes", 60L);
+		ReflectionTestUtils.setField(service, "currentTtlMinutes", 10L);
+
+		when(cache.peekAll(anyCollection())).thenReturn(Map.of(ownKey,
+				new AirQualityCache.Snapshot(cachedReading, Instant.now().minus(Duration.ofMinutes(2)))));
+		assertSame(cachedReading, service.estimate(point));
+		verifyNoInteractions(airQualityService);
+
+		// Past the TTL but within max-age: looked up (and marked) through the cache, not served as is
+		when(cache.peekAll(anyCollection())).thenReturn(Map.of(ownKey,
+				new AirQualityCache.Snapshot(cachedReading, Instant.now().minus(Duration.ofMinutes(50)))));
+		assertSame(refreshed, service.estimate(point));
+		verify(airQualityService).getCurrentConditions(any());
+	}
+}
@@ -0,0 +1,40 @@
+package com.sreeshanth.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTests {
+
+	@Test
+	void opensAfterConsecutiveFailuresOnly() {
+		CircuitBreaker breaker = new CircuitBreaker("test", 3, Duration.ofMinutes(1));
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onFailure();
+		assertTrue(breaker.tryAcquire());
+
+		breaker.onFailure();
+		assertFalse(breaker.tryAcquire());
+		assertTrue(breaker.retryAfterSeconds() > 0);
+	}
+
+	@Test
+	void letsOneTrialThroughAfterTheOpenPeriod() throws Exception {
+		CircuitBreaker breaker = new CircuitBreaker("test", 1, Duration.ofMillis(50));
+		breaker.onFailure();
+		assertFalse(breaker.tryAcquire());
+
+		Thread.sleep(80);
+		assertTrue(breaker.tryAcquire());
+		assertFalse(breaker.tryAcquire());
+
+		breaker.onSuccess();
+		assertTrue(breaker.tryAcquire());
+		assertEquals(0, breaker.retryAfterSeconds());
+	}
+}
@@ -0,0 +1,54 @@
+package com.sreeshanth.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTests {
+
+	private static final long MS = 1_000_000L;
+
+	@Test
+	void rejectsOverTheLimit() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 4, 4, 10, 1.5);
+		List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			permits.add(limiter.tryAcquire());
+		}
+		assertFalse(permits.contains(null));
+		assertNull(limiter.tryAcquire());
+
+		permits.get(0).release();
+		permits.get(0).release();
+		assertEquals(3, limiter.inFlight());
+		assertNotNull(limiter.tryAcquire());
+	}
+
+	@Test
+	void growsWhileBusyAndShrinksWhenLatencyRises() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 20, 4, 80, 1.5);
+		for (int i = 0; i < 200; i++) {
+			limiter.onSample(50 * MS, limiter.limit());
+		}
+		int grown = limiter.limit();
+		assertTrue(grown > 20);
+
+		for (int i = 0; i < 60; i++) {
+			limiter.onSample(2000 * MS, limiter.limit());
+		}
+		assertTrue(limiter.limit() < grown / 2);
+		assertTrue(limiter.limit() >= 4);
+	}
+
+	@Test
+	void doesNotGrowWhenMostlyIdle() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 20, 4, 80, 1.5);
+		for (int i = 0; i < 200; i++) {
+			limiter.onSample(50 * MS, 1);
+		}
+		assertEquals(20, limiter.limit());
+	}
+}
@@ -0,0 +1,201 @@
+package com.sreeshanth.backend.service;
+
+import com.sreeshanth.backend.model.ExposureAccount;
+import com.sreeshanth.backend.model.Location;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.repository.ExposureAccountRepository;
+import com.sreeshanth.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.sreeshanth.backend.service.AqReadings.hour;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExposureServiceTests {
+
+	private static final ZoneId UTC = ZoneOffset.UTC;
+	private static final String HOME_CELL = GridCell.of(12.97, 77.59, 0.01).key();
+
+	private final ExposureAccountRepository exposureAccountRepository = mock(ExposureAccountRepository.class);
+	private final AirQualityService airQualityService = mock(AirQualityService.class);
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+	// Twenty past five, so the current hour is 05:00
+	private final ExposureService service = new ExposureService(exposureAccountRepository, mock(UserRepository.class),
+			airQualityService, mock(JobLock.class), mongoTemplate, executor,
+			Clock.fixed(Instant.parse("2026-10-19T05:20:00Z"), UTC));
+
+	@BeforeEach
+	void configure() {
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "zone", "UTC");
+		ReflectionTestUtils.setField(service, "backfillHours", 168);
+		ReflectionTestUtils.setField(service, "retentionDays", 14);
+		ReflectionTestUtils.setField(service, "retentionWeeks", 8);
+		ReflectionTestUtils.setField(service, "cellSize", 0.01);
+	}
+
+	@Test
+	void newAccountIsBackfilledInOrderAndInserted() {
+		when(exposureAccountRepository.findById("u1")).thenReturn(Optional.empty());
+		history(hour("2026-10-19T04:00:00Z", 120, 60), hour("2026-10-19T03:00:00Z", 80, 40));
+
+		assertTrue(service.accumulate(user()));
+
+		verify(airQualityService).getHistoricalData(anyMap(), eq(168));
+		ArgumentCaptor<ExposureAccount> inserted = ArgumentCaptor.forClass(ExposureAccount.class);
+		verify(mongoTemplate).insert(inserted.capture());
+		assertEquals(HOME_CELL, inserted.getValue().getCellKey());
+		assertEquals(Date.from(Instant.parse("2026-10-19T04:00:00Z")), inserted.getValue().getLastHour());
+		assertEquals(100.0, inserted.getValue().getDays().get(0).getDoses().get("pm25"), 1e-9);
+	}
+
+	@Test
+	void asksOnlyForTheHoursSinceTheLastOneAndWritesOverThatVersion() {
+		ExposureAccount stored = account(HOME_CELL, "2026-10-19T02:00:00Z", 30.0);
+		when(exposureAccountRepository.findById("u1")).thenReturn(Optional.of(stored));
+		history(hour("2026-10-19T02:00:00Z", 50, 30), hour("2026-10-19T03:00:00Z", 80, 40),
+				hour("2026-10-19T04:00:00Z", 120, 60));
+		when(mongoTemplate.findAndReplace(any(Query.class), any(ExposureAccount.class))).thenReturn(stored);
+
+		assertTrue(service.accumulate(user()));
+
+		verify(airQualityService).getHistoricalData(anyMap(), eq(3));
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<ExposureAccount> replaced = ArgumentCaptor.forClass(ExposureAccount.class);
+		verify(mongoTemplate).findAndReplace(query.capture(), replaced.capture());
+		assertEquals("u1", query.getValue().getQueryObject().get("_id"));
+		assertEquals(HOME_CELL, query.getValue().getQueryObject().get("cellKey"));
+		assertEquals(Date.from(Instant.parse("2026-10-19T02:00:00Z")), query.getValue().getQueryObject().get("lastHour"));
+		// 02:00 was already counted
+		assertEquals(130.0, replaced.getValue().getDays().get(0).getDoses().get("pm25"), 1e-9);
+	}
+
+	@Test
+	void movingToAnotherCellStartsOverWithAFullBackfill() {
+		ExposureAccount stored = account("elsewhere", "2026-10-19T04:00:00Z", 500.0);
+		when(exposureAccountRepository.findById("u1")).thenReturn(Optional.of(stored));
+		history(hour("2026-10-19T04:00:00Z", 80, 40));
+		when(mongoTemplate.findAndReplace(any(Query.class), any(ExposureAccount.class))).thenReturn(stored);
+
+		assertTrue(service.accumulate(user()));
+
+		verify(airQualityService).getHistoricalData(anyMap(), eq(168));
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<ExposureAccount> replaced = ArgumentCaptor.forClass(ExposureAccount.class);
+		verify(mongoTemplate).findAndReplace(query.capture(), replaced.capture());
+		assertEquals("elsewhere", query.getValue().getQueryObject().get("cellKey"));
+		assertEquals(HOME_CELL, replaced.getValue().getCellKey());
+		assertEquals(40.0, replaced.getValue().getDays().get(0).getDoses().get("pm25"), 1e-9);
+	}
+
+	@Test
+	void upToDateAccountIsLeftAlone() {
+		when(exposureAccountRepository.findById("u1"))
+				.thenReturn(Optional.of(account(HOME_CELL, "2026-10-19T05:00:00Z", 30.0)));
+
+		assertFalse(service.accumulate(user()));
+
+		verifyNoInteractions(airQualityService, mongoTemplate);
+	}
+
+	@Test
+	void losingTheRaceToAnotherWriterReportsNoChange() {
+		when(exposureAccountRepository.findById("u1"))
+				.thenReturn(Optional.of(account(HOME_CELL, "2026-10-19T03:00:00Z", 30.0)));
+		history(hour("2026-10-19T04:00:00Z", 80, 40));
+		when(mongoTemplate.findAndReplace(any(Query.class), any(ExposureAccount.class))).thenReturn(null);
+
+		assertFalse(service.accumulate(user()));
+	}
+
+	@Test
+	void fullBackfillQueueLeavesTheUserToTheHourlyPass() {
+		doThrow(new TaskRejectedException("full")).when(executor).execute(any(Runnable.class));
+
+		assertDoesNotThrow(() -> service.accumulateInBackground(user()));
+		verifyNoInteractions(exposureAccountRepository);
+	}
+
+	@Test
+	void accumulatesDosePerDayAndWeek() {
+		ExposureAccount account = new ExposureAccount("u1", "c");
+		assertTrue(ExposureService.fold(account, hour("2026-10-18T22:00:00Z", 80, 40), UTC, 14, 8));
+		assertTrue(ExposureService.fold(account, hour("2026-10-18T23:00:00Z", 120, 60), UTC, 14, 8));
+		assertTrue(ExposureService.fold(account, hour("2026-10-19T00:00:00Z", 30, 10), UTC, 14, 8));
+
+		assertEquals(2, account.getDays().size());
+		ExposureAccount.Period sunday = account.getDays().get(0);
+		assertEquals("2026-10-18", sunday.getStart());
+		assertEquals(100.0, sunday.getDoses().get("pm25"), 1e-9);
+		assertEquals(2, sunday.getHours());
+		assertEquals(120, sunday.getMaxAqi());
+
+		// Sunday belongs to the week starting Monday the 12th; Monday the 19th starts a new one
+		assertEquals(List.of("2026-10-12", "2026-10-19"),
+				account.getWeeks().stream().map(ExposureAccount.Period::getStart).toList());
+		assertEquals("MICROGRAMS_PER_CUBIC_METER", account.getUnits().get("pm25"));
+	}
+
+	@Test
+	void ignoresHoursAlreadyCounted() {
+		ExposureAccount account = new ExposureAccount("u1", "c");
+		ExposureService.fold(account, hour("2026-10-19T05:00:00Z", 80, 40), UTC, 14, 8);
+		assertFalse(ExposureService.fold(account, hour("2026-10-19T05:00:00Z", 80, 40), UTC, 14, 8));
+		assertFalse(ExposureService.fold(account, hour("2026-10-19T04:00:00Z", 80, 40), UTC, 14, 8));
+		assertEquals(40.0, account.getDays().get(0).getDoses().get("pm25"), 1e-9);
+	}
+
+	@Test
+	void dropsDaysPastRetention() {
+		ExposureAccount account = new ExposureAccount("u1", "c");
+		for (int day = 1; day <= 5; day++) {
+			ExposureService.fold(account, hour("2026-10-0" + day + "T12:00:00Z", 20, 10), UTC, 3, 8);
+		}
+		assertEquals(List.of("2026-10-03", "2026-10-04", "2026-10-05"),
+				account.getDays().stream().map(ExposureAccount.Period::getStart).toList());
+	}
+
+	@SafeVarargs
+	private void history(Map<String, Object>... hours) {
+		when(airQualityService.getHistoricalData(anyMap(), anyInt())).thenReturn(Map.of("hoursInfo", List.of(hours)));
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setId("u1");
+		user.setPrimaryLocation(new Location("Home", 12.97, 77.59, null, null));
+		return user;
+	}
+
+	private static ExposureAccount account(String cellKey, String lastHour, double pm25) {
+		ExposureAccount account = new ExposureAccount("u1", cellKey);
+		account.setLastHour(Date.from(Instant.parse(lastHour)));
+		ExposureAccount.Period day = new ExposureAccount.Period("2026-10-19");
+		day.getDoses().put("pm25", pm25);
+		day.setHours(1);
+		account.getDays().add(day);
+		account.setUpdatedAt(new Date());
+		return account;
+	}
+}
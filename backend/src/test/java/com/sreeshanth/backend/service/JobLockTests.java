@@ -0,0 +1,67 @@
+package com.sreeshanth.backend.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JobLockTests {
+
+	private static final Instant NOW = Instant.parse("2026-10-19T03:00:00Z");
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final JobLock jobLock = new JobLock(mongoTemplate, Clock.fixed(NOW, ZoneOffset.UTC));
+
+	@Test
+	void takesTheLeaseOnlyWhenItIsFreeOrExpired() {
+		assertTrue(jobLock.tryAcquire("exposure", Duration.ofMinutes(30)));
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(mongoTemplate).upsert(query.capture(), update.capture(), eq("job_locks"));
+
+		assertEquals(new Document("_id", "exposure").append("lockedUntil", new Document("$lt", Date.from(NOW))),
+				query.getValue().getQueryObject());
+		Document set = (Document) update.getValue().getUpdateObject().get("$set");
+		assertEquals(Date.from(NOW), set.get("lockedAt"));
+		assertEquals(Date.from(NOW.plus(Duration.ofMinutes(30))), set.get("lockedUntil"));
+	}
+
+	@Test
+	void refusesALeaseHeldByAnotherNode() {
+		when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq("job_locks")))
+				.thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+		assertFalse(jobLock.tryAcquire("exposure", Duration.ofMinutes(30)));
+	}
+
+	@Test
+	void releasesOnlyTheLeaseThisNodeTook() {
+		jobLock.release("exposure");
+		verify(mongoTemplate, never()).remove(any(Query.class), anyString());
+
+		assertTrue(jobLock.tryAcquire("exposure", Duration.ofMinutes(30)));
+		jobLock.release("exposure");
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).remove(query.capture(), eq("job_locks"));
+		// Matching lockedAt leaves a lease another node took after ours ran out alone
+		assertEquals(new Document("_id", "exposure").append("lockedAt", Date.from(NOW)),
+				query.getValue().getQueryObject());
+	}
+}
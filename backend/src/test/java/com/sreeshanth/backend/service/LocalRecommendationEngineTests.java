@@ -0,0 +1,46 @@
+package com.sreeshanth.backend.service;
+
+import com.sreeshanth.backend.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRecommendationEngineTests {
+
+	private final LocalRecommendationEngine engine = new LocalRecommendationEngine();
+
+	@Test
+	void canonicalizesFreeTextConditions() {
+		assertEquals(
+			java.util.EnumSet.of(LocalRecommendationEngine.Condition.ASTHMA, LocalRecommendationEngine.Condition.HEART),
+			LocalRecommendationEngine.canonicalConditions("Mild Asthma; high blood pressure"));
+		assertTrue(LocalRecommendationEngine.canonicalConditions("None").isEmpty());
+	}
+
+	@Test
+	void severityFollowsEachIndexScale() {
+		assertEquals(0, LocalRecommendationEngine.severity(Map.of("indexes", List.of(Map.of("code", "uaqi", "aqi", 90)))));
+		assertEquals(4, LocalRecommendationEngine.severity(Map.of("indexes", List.of(Map.of("code", "uaqi", "aqi", 10)))));
+		assertEquals(3, LocalRecommendationEngine.severity(Map.of("indexes", List.of(
+			Map.of("code", "uaqi", "aqi", 90),
+			Map.of("code", "ind_cpcb", "aqi", 250)))));
+	}
+
+	@Test
+	void sensitiveUserGetsConditionAdviceOnPoorAir() {
+		User user = new User();
+		user.setMedicalConditions("asthma");
+		Map<String, Object> airQuality = Map.of(
+			"indexes", List.of(Map.of("code", "ind_cpcb", "aqi", 250)),
+			"dominantPollutant", "pm25");
+
+		Map<String, String> recommendations = engine.recommend(user, airQuality);
+
+		assertTrue(recommendations.get("primary").contains("health profile"));
+		assertTrue(recommendations.get("secondary").contains("asthma"));
+	}
+
+}
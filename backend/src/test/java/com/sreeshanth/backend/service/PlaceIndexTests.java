@@ -0,0 +1,52 @@
+package com.sreeshanth.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaceIndexTests {
+
+	@Test
+	void findsSamePlaceAsBruteForce() {
+		Random random = new Random(42);
+		int size = 5000;
+		float[] latitudes = new float[size];
+		float[] longitudes = new float[size];
+		String[] names = new String[size];
+		for (int i = 0; i < size; i++) {
+			latitudes[i] = (float) (random.nextDouble() * 180 - 90);
+			longitudes[i] = (float) (random.nextDouble() * 360 - 180);
+			names[i] = "place-" + i;
+		}
+		PlaceIndex index = PlaceIndex.build(latitudes, longitudes, names, size);
+
+		for (int q = 0; q < 200; q++) {
+			double lat = random.nextDouble() * 180 - 90;
+			double lng = random.nextDouble() * 360 - 180;
+
+			double best = Double.MAX_VALUE;
+			for (int i = 0; i < size; i++) {
+				best = Math.min(best, index.distanceKm(i, lat, lng));
+			}
+			assertEquals(best, index.distanceKm(index.nearest(lat, lng), lat, lng), 1e-3);
+		}
+	}
+
+	@Test
+	void handlesAntimeridian() {
+		float[] latitudes = {0f, 0f};
+		float[] longitudes = {179.9f, 0f};
+		PlaceIndex index = PlaceIndex.build(latitudes, longitudes, new String[]{"east", "null island"}, 2);
+
+		assertEquals("east", index.name(index.nearest(0, -179.9)));
+	}
+
+	@Test
+	void emptyIndexReturnsNoMatch() {
+		PlaceIndex index = PlaceIndex.build(new float[0], new float[0], new String[0], 0);
+		assertEquals(-1, index.nearest(17.385, 78.4867));
+	}
+
+}
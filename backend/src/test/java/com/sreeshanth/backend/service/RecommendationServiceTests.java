@@ -0,0 +1,174 @@
+package com.sreeshanth.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sreeshanth.backend.model.DailyRecommendation;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.repository.DailyRecommendationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecommendationServiceTests {
+
+	private static final Map<String, String> ANSWER = Map.of("primary", "p", "secondary", "s");
+
+	@Test
+	void holdsAtMostTheConfiguredNumberOfUpgrades() {
+		RecommendationService service = new RecommendationService(null, null, null, null, null, 2, 0.01);
+		Instant now = Instant.now();
+		service.remember("u1", ANSWER, now);
+		service.remember("u2", ANSWER, now);
+		service.remember("u3", ANSWER, now);
+		assertEquals(2, service.pendingUpgrades());
+
+		// Replacing an existing user's upgrade is always allowed
+		service.remember("u1", ANSWER, now);
+		assertEquals(2, service.pendingUpgrades());
+
+		// Once the old ones have expired there is room again
+		service.remember("u3", ANSWER, now.plus(Duration.ofMinutes(31)));
+		assertEquals(1, service.pendingUpgrades());
+	}
+
+	@Test
+	void sweepDropsOnlyExpiredUpgrades() {
+		RecommendationService service = new RecommendationService(null, null, null, null, null, 10, 0.01);
+		Instant now = Instant.now();
+		service.remember("old", ANSWER, now.minus(Duration.ofMinutes(45)));
+		service.remember("new", ANSWER, now.minus(Duration.ofMinutes(5)));
+
+		service.sweepExpired(now);
+		assertEquals(1, service.pendingUpgrades());
+	}
+
+	@Test
+	void lateAnswerForAnEarlierPlaceDoesNotReplaceTheLaterOne() throws Exception {
+		CountDownLatch releaseHome = new CountDownLatch(1);
+		CountDownLatch releaseOffice = new CountDownLatch(1);
+		AiService aiService = mock(AiService.class);
+		when(aiService.getPersonalizedHealthRecommendations(any(), any())).thenAnswer(call -> {
+			Map<String, Object> data = call.getArgument(1);
+			boolean home = ((Map<?, ?>) data.get("location")).get("latitude").equals(12.97);
+			(home ? releaseHome : releaseOffice).await();
+			return "{\"primary\": \"" + (home ? "home" : "office") + "\", \"secondary\": \"s\"}";
+		});
+		LocalRecommendationEngine localEngine = mock(LocalRecommendationEngine.class);
+		when(localEngine.recommend(any(), any())).thenReturn(ANSWER);
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.initialize();
+		DailyRecommendationRepository repository = mock(DailyRecommendationRepository.class);
+		RecommendationService service = new RecommendationService(aiService, localEngine, repository,
+				new ObjectMapper(), executor, 10, 0.01);
+		try {
+			// Both miss the (zero) latency budget, home first
+			assertEquals("local", service.recommend(user(), at(12.97, 77.59)).get("source"));
+			assertEquals("local", service.recommend(user(), at(28.61, 77.21)).get("source"));
+
+			releaseOffice.countDown();
+			assertEquals("office", awaitLatest(service, 28.61, 77.21).get("primary"));
+			releaseHome.countDown();
+			assertEquals("home", awaitLatest(service, 12.97, 77.59).get("primary"));
+
+			// The home answer arrived last but is not served for the office
+			assertEquals("office", service.latest(user(), 28.61, 77.21).get("primary"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void usesPrecomputedAnswerUpToItsWorstCaseSeverity() {
+		DailyRecommendation daily = new DailyRecommendation();
+		daily.setPrimary("Stay indoors this afternoon");
+		daily.setSeverity(3); // Worst forecast hour of the day
+		daily.setCell(GridCell.of(12.97, 77.59, 0.01).key());
+		daily.setValidUntil(Date.from(Instant.now().plus(Duration.ofHours(6))));
+		RecommendationService service = withPrecomputed(daily);
+
+		Map<String, Object> cleanMorning = service.precomputed(user(), atHome(40));
+		assertNotNull(cleanMorning);
+		assertEquals("precomputed", cleanMorning.get("source"));
+		assertNotNull(service.precomputed(user(), atHome(280)));
+
+		// Worse than forecast: the stored advice may be too mild
+		assertNull(service.precomputed(user(), atHome(350)));
+	}
+
+	@Test
+	void usesPrecomputedAnswerOnlyInTheCellItWasWrittenFor() {
+		DailyRecommendation daily = new DailyRecommendation();
+		daily.setSeverity(3);
+		daily.setCell(GridCell.of(12.97, 77.59, 0.01).key());
+		daily.setValidUntil(Date.from(Instant.now().plus(Duration.ofHours(6))));
+		RecommendationService service = withPrecomputed(daily);
+
+		assertNotNull(service.precomputed(user(), atHome(40)));
+		// A map click in another city, or a request that does not say where it is for
+		assertNull(service.precomputed(user(), at(28.61, 77.21)));
+		assertNull(service.precomputed(user(), reading(40)));
+	}
+
+	@Test
+	void ignoresExpiredPrecomputedAnswer() {
+		DailyRecommendation daily = new DailyRecommendation();
+		daily.setSeverity(3);
+		daily.setCell(GridCell.of(12.97, 77.59, 0.01).key());
+		daily.setValidUntil(Date.from(Instant.now().minus(Duration.ofMinutes(1))));
+		assertNull(withPrecomputed(daily).precomputed(user(), atHome(40)));
+	}
+
+	private static RecommendationService withPrecomputed(DailyRecommendation daily) {
+		DailyRecommendationRepository repository = mock(DailyRecommendationRepository.class);
+		when(repository.findById("u1")).thenReturn(Optional.of(daily));
+		return new RecommendationService(null, null, repository, null, null, 10, 0.01);
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setId("u1");
+		return user;
+	}
+
+	private static Map<String, Object> awaitLatest(RecommendationService service, double latitude, double longitude)
+			throws InterruptedException {
+		for (int i = 0; i < 200; i++) {
+			Map<String, Object> latest = service.latest(user(), latitude, longitude);
+			if (latest != null) {
+				return latest;
+			}
+			Thread.sleep(10);
+		}
+		fail("No upgrade arrived");
+		return null;
+	}
+
+	private static Map<String, Object> atHome(int aqi) {
+		Map<String, Object> data = new HashMap<>(reading(aqi));
+		data.put("location", Map.of("latitude", 12.97, "longitude", 77.59));
+		return data;
+	}
+
+	private static Map<String, Object> at(double latitude, double longitude) {
+		Map<String, Object> data = new HashMap<>(reading(40));
+		data.put("location", Map.of("latitude", latitude, "longitude", longitude));
+		return data;
+	}
+
+	private static Map<String, Object> reading(int aqi) {
+		return Map.of("indexes", List.of(Map.of("code", "ind_cpcb", "aqi", aqi)));
+	}
+}
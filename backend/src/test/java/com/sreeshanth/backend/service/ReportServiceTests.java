@@ -0,0 +1,96 @@
+package com.sreeshanth.backend.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.sreeshanth.backend.model.ReportAnalysis;
+import com.sreeshanth.backend.repository.ReportAnalysisRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReportServiceTests {
+
+	private final GridFsTemplate gridFsTemplate = mock(GridFsTemplate.class);
+	private final ReportAnalysisRepository repository = mock(ReportAnalysisRepository.class);
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+	private final ReportService service = new ReportService(gridFsTemplate, repository, null, null, mongoTemplate, executor);
+
+	@Test
+	void marksTheReportFailedWhenTheQueueIsFull() {
+		matches(1);
+		doThrow(new TaskRejectedException("full")).when(executor).execute(any(Runnable.class));
+
+		ReportAnalysis report = service.reanalyze(report(ReportAnalysis.Status.FAILED)).orElseThrow();
+
+		assertEquals(ReportAnalysis.Status.FAILED, report.getStatus());
+		assertNotNull(report.getError());
+		List<Document> sets = updates().stream().map(update -> (Document) update.getUpdateObject().get("$set")).toList();
+		assertEquals(List.of(ReportAnalysis.Status.PENDING, ReportAnalysis.Status.FAILED),
+				sets.stream().map(set -> set.get("status")).toList());
+	}
+
+	@Test
+	void refusesToRequeueAReportThatIsPendingOrRunning() {
+		matches(0);
+
+		assertEquals(Optional.empty(), service.reanalyze(report(ReportAnalysis.Status.PROCESSING)));
+		verifyNoInteractions(executor);
+	}
+
+	@Test
+	void skipsAReportDeletedWhileQueued() {
+		when(repository.findById("r1")).thenReturn(Optional.empty());
+
+		service.analyze("r1");
+
+		verifyNoInteractions(mongoTemplate, gridFsTemplate);
+	}
+
+	@Test
+	void dropsTheResultOfAReportDeletedDuringAnalysis() {
+		when(repository.findById("r1")).thenReturn(Optional.of(report(ReportAnalysis.Status.PENDING)));
+		// Claimed for processing, then gone by the time the result is written
+		when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(ReportAnalysis.class)))
+				.thenReturn(UpdateResult.acknowledged(1, 1L, null), UpdateResult.acknowledged(0, 0L, null));
+
+		service.analyze("r1");
+
+		assertEquals(2, updates().size());
+		verify(repository, never()).save(any());
+	}
+
+	private void matches(long count) {
+		when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(ReportAnalysis.class)))
+				.thenReturn(UpdateResult.acknowledged(count, count, null));
+	}
+
+	private List<UpdateDefinition> updates() {
+		ArgumentCaptor<UpdateDefinition> captor = ArgumentCaptor.forClass(UpdateDefinition.class);
+		verify(mongoTemplate, atLeastOnce()).updateFirst(any(Query.class), captor.capture(), eq(ReportAnalysis.class));
+		return captor.getAllValues();
+	}
+
+	private static ReportAnalysis report(ReportAnalysis.Status status) {
+		ReportAnalysis report = new ReportAnalysis();
+		report.setId("r1");
+		report.setUserId("u1");
+		report.setFileId("0123456789abcdef01234567");
+		report.setContentType("application/pdf");
+		report.setStatus(status);
+		return report;
+	}
+}
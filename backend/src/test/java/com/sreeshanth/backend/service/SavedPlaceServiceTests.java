@@ -0,0 +1,100 @@
+package com.sreeshanth.backend.service;
+
+import com.sreeshanth.backend.model.Location;
+import com.sreeshanth.backend.model.SavedPlace;
+import com.sreeshanth.backend.model.User;
+import com.sreeshanth.backend.repository.SavedPlaceRepository;
+import com.sreeshanth.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SavedPlaceServiceTests {
+
+	private final SavedPlaceRepository savedPlaceRepository = mock(SavedPlaceRepository.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final JobLock jobLock = mock(JobLock.class);
+	private final SavedPlaceService service = new SavedPlaceService(savedPlaceRepository, userRepository, null, jobLock);
+
+	@Test
+	void savedLocationsDifferingOnlyInCaseGetTheirOwnPlaces() {
+		User user = user("u1", location("Current", 12.93, 77.61),
+				location("Home", 12.97, 77.59), location("home", 13.01, 77.62));
+
+		service.sync(user);
+
+		ArgumentCaptor<List<SavedPlace>> saved = ArgumentCaptor.captor();
+		verify(savedPlaceRepository).saveAll(saved.capture());
+		List<String> ids = saved.getValue().stream().map(SavedPlace::getId).toList();
+		assertEquals(List.of("u1:primary", "u1:saved:0", "u1:saved:1"), ids);
+	}
+
+	@Test
+	void writesTheNewPlacesBeforeRemovingTheOldOnes() {
+		User user = user("u1", location("Current", 12.93, 77.61), location("Office", 12.97, 77.59));
+		user.getSavedLocations().add(location("No coordinates", null, null));
+
+		service.sync(user);
+
+		InOrder order = inOrder(savedPlaceRepository);
+		order.verify(savedPlaceRepository).saveAll(any());
+		order.verify(savedPlaceRepository).deleteByUserIdAndIdNotIn("u1", List.of("u1:primary", "u1:saved:0"));
+		verify(savedPlaceRepository, never()).deleteAll();
+	}
+
+	@Test
+	void backfillSyncsTheUsersMongoReportsWithoutPlacesAndReleasesTheLock() {
+		when(jobLock.tryAcquire(eq("saved-places-backfill"), any(Duration.class))).thenReturn(true);
+		User missing = user("missing", location("Home", 28.61, 77.21));
+		when(userRepository.findWithoutSavedPlaces()).thenReturn(Stream.of(missing));
+
+		assertEquals(1, service.backfillMissing());
+		verify(savedPlaceRepository).deleteByUserIdAndIdNotIn(eq("missing"), any());
+		verify(userRepository, never()).findAll();
+		verify(jobLock).release("saved-places-backfill");
+	}
+
+	@Test
+	void backfillReleasesTheLockWhenItStopsEarly() {
+		when(jobLock.tryAcquire(eq("saved-places-backfill"), any(Duration.class))).thenReturn(true);
+		when(userRepository.findWithoutSavedPlaces()).thenThrow(new IllegalStateException("Mongo is down"));
+
+		assertEquals(0, service.backfillMissing());
+		verify(jobLock).release("saved-places-backfill");
+	}
+
+	@Test
+	void backfillLeavesTheRunToTheNodeHoldingTheLock() {
+		when(jobLock.tryAcquire(anyString(), any(Duration.class))).thenReturn(false);
+
+		assertEquals(0, service.backfillMissing());
+		verifyNoInteractions(userRepository, savedPlaceRepository);
+		verify(jobLock, never()).release(anyString());
+	}
+
+	private static User user(String id, Location primary, Location... saved) {
+		User user = new User();
+		user.setId(id);
+		user.setPrimaryLocation(primary);
+		user.getSavedLocations().addAll(List.of(saved));
+		return user;
+	}
+
+	private static Location location(String name, Double latitude, Double longitude) {
+		Location location = new Location();
+		location.setName(name);
+		location.setLatitude(latitude);
+		location.setLongitude(longitude);
+		return location;
+	}
+}
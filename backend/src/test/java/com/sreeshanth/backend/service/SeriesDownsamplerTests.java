@@ -0,0 +1,33 @@
+package com.sreeshanth.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeriesDownsamplerTests {
+
+	@Test
+	void returnsInputWhenUnderThreshold() {
+		List<Double> points = List.of(1.0, 2.0, 3.0);
+		assertSame(points, SeriesDownsampler.lttb(points, Double::doubleValue, 10));
+	}
+
+	@Test
+	void keepsEndpointsAndPeak() {
+		List<Double> points = new ArrayList<>();
+		for (int i = 0; i < 720; i++) {
+			points.add(i == 400 ? 500.0 : 50.0);
+		}
+
+		List<Double> sampled = SeriesDownsampler.lttb(points, Double::doubleValue, 100);
+
+		assertEquals(100, sampled.size());
+		assertSame(points.get(0), sampled.get(0));
+		assertSame(points.get(719), sampled.get(99));
+		assertTrue(sampled.contains(500.0));
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.sreeshanth.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.sreeshanth.backend.service.AqReadings.hour;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeriesEncoderTests {
+
+	@Test
+	void writesColumnsWithDictionaryAndTimeDeltas() throws Exception {
+		Map<String, Object> response = Map.of(
+				"regionCode", "in",
+				"hoursInfo", List.of(hour("2025-01-01T00:00:00Z", 150, 61.5), hour("2025-01-01T01:00:00Z", 160, 70.25)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SeriesEncoder.write(response, out);
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals("AQS", new String(data.readNBytes(3), StandardCharsets.US_ASCII));
+		assertEquals(SeriesEncoder.VERSION, data.readUnsignedByte());
+		assertEquals(2, data.readInt());
+		int listNameId = data.readUnsignedShort();
+		int regionCodeId = data.readUnsignedShort();
+		assertEquals(-1, data.readInt());
+		assertEquals(0, data.readUnsignedByte());
+		assertEquals(0xFFFF, data.readUnsignedShort());
+		assertEquals(-1, data.readInt());
+
+		List<String> dictionary = new ArrayList<>();
+		int size = data.readUnsignedShort();
+		for (int i = 0; i < size; i++) {
+			dictionary.add(new String(data.readNBytes(data.readUnsignedShort()), StandardCharsets.UTF_8));
+		}
+		assertEquals("hoursInfo", dictionary.get(listNameId));
+		assertEquals("in", dictionary.get(regionCodeId));
+		// Every string appears once, however many hours repeat it
+		assertEquals(dictionary.size(), dictionary.stream().distinct().count());
+
+		assertEquals(1735689600L, data.readLong());
+		assertEquals(0, data.readInt());
+		assertEquals(3600, data.readInt());
+
+		assertEquals(1, data.readUnsignedByte());
+		assertEquals("ind_cpcb", dictionary.get(data.readUnsignedShort()));
+		assertEquals("AQI (IN)", dictionary.get(data.readUnsignedShort()));
+		assertEquals(150, data.readShort());
+		assertEquals(160, data.readShort());
+		assertEquals("Moderate", dictionary.get(data.readUnsignedShort()));
+		assertEquals("Moderate", dictionary.get(data.readUnsignedShort()));
+		assertEquals("pm25", dictionary.get(data.readUnsignedShort()));
+		assertEquals("pm25", dictionary.get(data.readUnsignedShort()));
+		assertArrayEquals(new byte[]{(byte) 255, (byte) 128, 0, (byte) 255, (byte) 128, 0}, data.readNBytes(6));
+
+		assertEquals(1, data.readUnsignedByte());
+		assertEquals("pm25", dictionary.get(data.readUnsignedShort()));
+		assertEquals("PM2.5", dictionary.get(data.readUnsignedShort()));
+		assertEquals(0xFFFF, data.readUnsignedShort());
+		assertEquals("MICROGRAMS_PER_CUBIC_METER", dictionary.get(data.readUnsignedShort()));
+		assertEquals(61.5f, data.readFloat());
+		assertEquals(70.25f, data.readFloat());
+
+		assertEquals(0, data.readUnsignedByte());
+		assertEquals(-1, data.read());
+	}
+
+	@Test
+	void carriesStaleMarkersInTheHeader() throws Exception {
+		Map<String, Object> response = Map.of(
+				"hoursInfo", List.of(hour("2025-01-01T00:00:00Z", 150, 61.5)),
+				"stale", true,
+				"fetchedAt", "2025-01-01T00:20:00Z",
+				"ageSeconds", 5400L);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SeriesEncoder.write(new SeriesEncoder.Series(response), out);
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+
+		data.readNBytes(4 + 4 + 2 + 2 + 4);
+		assertEquals(1, data.readUnsignedByte());
+		int fetchedAtId = data.readUnsignedShort();
+		assertEquals(5400, data.readInt());
+
+		List<String> dictionary = new ArrayList<>();
+		int size = data.readUnsignedShort();
+		for (int i = 0; i < size; i++) {
+			dictionary.add(new String(data.readNBytes(data.readUnsignedShort()), StandardCharsets.UTF_8));
+		}
+		assertEquals("2025-01-01T00:20:00Z", dictionary.get(fetchedAtId));
+	}
+}
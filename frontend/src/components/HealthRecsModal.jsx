@@ -5,7 +5,7 @@ import { fetchAiRecommendations } from '../services/aiService';
 import '../styles/HealthRecsModal.css';
 import '../styles/Home.css';
 
-const HealthRecsModal = ({ onClose, airQualityData, isLoggedIn, onLoginRequest, onSignupRequest }) => {
+const HealthRecsModal = ({ onClose, airQualityData, location, isLoggedIn, onLoginRequest, onSignupRequest }) => {
     const [recommendations, setRecommendations] = useState(null);
     const [isLoading, setIsLoading] = useState(false);
     const [error, setError] = useState('');
@@ -25,7 +25,7 @@ const HealthRecsModal = ({ onClose, airQualityData, isLoggedIn, onLoginRequest,
                 setIsLoading(true);
                 setError('');
                 
-                const recs = await fetchAiRecommendations(airQualityData);
+                const recs = await fetchAiRecommendations(airQualityData, location);
                 if (recs && Object.keys(recs).length > 0) {
                     setRecommendations(recs);
                 } else {
@@ -40,7 +40,7 @@ const HealthRecsModal = ({ onClose, airQualityData, isLoggedIn, onLoginRequest,
         };
 
         getRecommendations();
-    }, [airQualityData, isLoggedIn]);
+    }, [airQualityData, location, isLoggedIn]);
 
     const handleRetry = () => {
         setRetryCount(retryCount + 1);
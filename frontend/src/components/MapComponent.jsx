@@ -1,5 +1,5 @@
 import React, { useState, useEffect, useRef, forwardRef, useImperativeHandle } from 'react';
-import { GOOGLE_MAPS_API_KEY, getPreferredAqi } from '../services/airQualityService';
+import { GOOGLE_MAPS_API_KEY, getPreferredAqi, estimateCurrentConditions } from '../services/airQualityService';
 import { getMapConfig, getMapStyles, reverseGeocode } from '../services/mapConfigService';
 
 const MapComponent = forwardRef(({ showHeatmap = true, initialLocation, onLocationUpdate, onLocationConfirm, userLocation, isSelecting }, ref) => {
@@ -298,19 +298,8 @@ const MapComponent = forwardRef(({ showHeatmap = true, initialLocation, onLocati
 
                     try {
                         // --- 2. Fetch AQI and Geocode data concurrently ---
-                        const aqiPromise = fetch(`https://airquality.googleapis.com/v1/currentConditions:lookup?key=${GOOGLE_MAPS_API_KEY}`, {
-                            method: 'POST',
-                            headers: { 'Content-Type': 'application/json' },
-                            body: JSON.stringify({
-                                location: { latitude: lat, longitude: lng },
-                                extraComputations: [
-                                    "HEALTH_RECOMMENDATIONS", 
-                                    "POLLUTANT_CONCENTRATION", 
-                                    "DOMINANT_POLLUTANT_CONCENTRATION",
-                                    "LOCAL_AQI" // <-- This was missing
-                                ]
-                            }),
-                        }).then(res => res.ok ? res.json() : Promise.reject('Failed to fetch AQI data.'));
+                        // Served from nearby cached cells when possible, so browsing the map rarely hits upstream
+                        const aqiPromise = estimateCurrentConditions({ latitude: lat, longitude: lng });
 
                         const geocodePromise = new window.google.maps.Geocoder()
                             .geocode({ location: latLng })
@@ -335,7 +324,7 @@ const MapComponent = forwardRef(({ showHeatmap = true, initialLocation, onLocati
                                     </div>
                                     <div style="display: flex; align-items: center; gap: 16px; padding: 16px;">
                                         <div style="width: 64px; height: 64px; background-color: ${aqiColor}; border-radius: 50%; display: flex; flex-direction: column; align-items: center; justify-content: center; color: white; flex-shrink: 0; box-shadow: 0 4px 8px rgba(0,0,0,0.15);">
-                                            <span style="font-size: 24px; font-weight: bold; line-height: 1;">${aqiIndex.aqi}</span>
+                                            <span style="font-size: 24px; font-weight: bold; line-height: 1;" title="${aqiData.interpolated ? 'Estimated from nearby readings' : ''}">${aqiData.interpolated ? '≈' : ''}${aqiIndex.aqi}</span>
                                             <span style="font-size: 10px; font-weight: 500; margin-top: 2px; opacity: 0.9;">NAQI</span>
                                         </div>
                                         <div style="flex: 1;">
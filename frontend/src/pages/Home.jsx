@@ -21,8 +21,9 @@ import {
 import HealthRecommendations from '../components/HealthRecommendations';
 import {
     fetchCurrentConditions,
+    subscribeCurrentConditions,
     fetchHistoricalData,
-    fetchForecastData,
+    streamForecastData,
     getPreferredAqi,
     GOOGLE_MAPS_API_KEY
 } from '../services/airQualityService';
@@ -336,6 +337,7 @@ export default function Home() {
     const [currentData, setCurrentData] = useState(null);
     const [historyData, setHistoryData] = useState(null);
     const [forecastData, setForecastData] = useState(null);
+    const forecastRequestRef = useRef(0); // Ignores batches from a stream for a previous location
     const [nationalAqi, setNationalAqi] = useState(null);
     
     // Loading and error states
@@ -423,6 +425,15 @@ export default function Home() {
         }
     }, [location]);
 
+    // Keep current conditions live while a location is shown
+    useEffect(() => {
+        if (!location) return;
+        return subscribeCurrentConditions({
+            latitude: location.latitude,
+            longitude: location.longitude
+        }, setCurrentData);
+    }, [location]);
+
     // Function to fetch all air quality data for a location
     const fetchAirQualityData = useCallback(async (loc) => {
         setIsLoading(true);
@@ -450,24 +461,25 @@ export default function Home() {
                 setHistoryData(null);
             }
             
-            // Try to fetch forecast data, but don't fail the entire operation if it fails
-            try {
-                const forecastResult = await fetchForecastData({
-                    latitude: loc.latitude,
-                    longitude: loc.longitude
-                });
+            setIsLoading(false);
 
-                if (forecastResult) {
-                    setForecastData(forecastResult);
-                } else {
-                    setForecastData(null);
-                }
-            } catch (forecastError) {
+            // Stream the multi-day forecast once the rest is shown: the chart renders the first
+            // day as soon as it arrives and later days fill in (for the expanded view) as they load
+            const request = ++forecastRequestRef.current;
+            setForecastData(null);
+            streamForecastData({
+                latitude: loc.latitude,
+                longitude: loc.longitude
+            }, 96, (hours, stale) => {
+                if (forecastRequestRef.current !== request) return;
+                setForecastData(prev => ({
+                    ...stale,
+                    hourlyForecasts: [...(prev?.hourlyForecasts || []), ...hours]
+                }));
+            }).catch(forecastError => {
+                // Keep whatever days already arrived
                 console.warn("Could not load forecast data:", forecastError);
-                setForecastData(null);
-            }
-            
-            setIsLoading(false);
+            });
         } catch (err) {
             console.error("Error fetching air quality data:", err);
             setError("Failed to load air quality data. Please try again.");
@@ -1233,6 +1245,7 @@ export default function Home() {
                 <HealthRecsModal
                     onClose={() => setShowHealthRecsModal(false)}
                     airQualityData={currentData}
+                    location={location}
                     isLoggedIn={isLoggedIn}
                     onLoginRequest={() => {
                         setShowHealthRecsModal(false);
@@ -1,6 +1,10 @@
 import api from './api';
 
-export const fetchAiRecommendations = async (airQualityData) => {
+/**
+ * Recommendations for the conditions at location ({latitude, longitude}); the backend keys
+ * late AI answers and nightly precomputed advice by location.
+ */
+export const fetchAiRecommendations = async (airQualityData, location) => {
   try {
     // The api instance should automatically include the Bearer token
     // Verify the token exists:
@@ -12,7 +16,10 @@ export const fetchAiRecommendations = async (airQualityData) => {
     
     console.log('🔐 Sending AI request with token:', token.substring(0, 20) + '...');
     
-    const response = await api.post('/ai/recommendations', airQualityData);
+    const response = await api.post('/ai/recommendations', {
+      ...airQualityData,
+      location: location ? { latitude: location.latitude, longitude: location.longitude } : undefined,
+    });
     return response.data;
   } catch (error) {
     console.error('Failed to fetch AI recommendations:', error);
@@ -2,8 +2,13 @@
  * Service for fetching air quality data from Backend (which calls Google Maps Air Quality API)
  */
 
+import { SERIES_MEDIA_TYPE, readSeriesResponse } from './seriesCodec';
+
 const BACKEND_URL = "/api/air-quality";
 
+// Chart series are requested in the compact columnar format, with JSON as a fallback
+const SERIES_ACCEPT = `${SERIES_MEDIA_TYPE}, application/json;q=0.9`;
+
 export const GOOGLE_MAPS_API_KEY = import.meta.env.VITE_GOOGLE_MAPS_API_KEY;
 
 /**
@@ -43,14 +48,15 @@ export const fetchCurrentConditions = async (location) => {
 };
 
 /**
- * Fetch historical air quality data for a specific location
+ * Estimate current conditions at an arbitrary point (map clicks). The backend interpolates
+ * from nearby cached readings and only calls upstream when they are too sparse or stale;
+ * estimates carry `interpolated: true` and an `interpolation.confidence` between 0 and 1.
  * @param {Object} location - The location coordinates {latitude, longitude}
- * @param {number} hours - Number of hours back to request (up to 720)
- * @returns {Promise<Object>} - Historical air quality data
+ * @returns {Promise<Object>} - Current air quality data (possibly estimated)
  */
-export const fetchHistoricalData = async (location, hours = 24) => {
+export const estimateCurrentConditions = async (location) => {
   try {
-    const response = await fetch(`${BACKEND_URL}/history`, {
+    const response = await fetch(`${BACKEND_URL}/current/estimate`, {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
@@ -59,56 +65,142 @@ export const fetchHistoricalData = async (location, hours = 24) => {
         location: {
           latitude: location.latitude,
           longitude: location.longitude
-        },
-        hours: hours
+        }
       }),
     });
-    
+
     if (!response.ok) {
       throw new Error(`Error: ${response.status}`);
     }
-    
+
     return await response.json();
   } catch (error) {
-    console.error("Failed to fetch historical data:", error);
+    console.error("Failed to estimate current conditions:", error);
     throw error;
   }
 };
 
 /**
- * Fetch forecast air quality data with progressive shrinking window.
- * Backend tries durations: 24h, 12h, 6h, 3h, 1h.
- * Returns first successful JSON with hourlyForecasts, else null.
+ * Subscribe to live current conditions for a location (Server-Sent Events).
+ * Viewers of the same area share one backend poller, so this replaces client-side polling.
+ * @param {Object} location - The location coordinates {latitude, longitude}
+ * @param {Function} onConditions - Called with each new current-conditions payload
+ * @returns {Function} - Call to unsubscribe
+ */
+export const subscribeCurrentConditions = (location, onConditions) => {
+  const params = new URLSearchParams({
+    latitude: location.latitude,
+    longitude: location.longitude
+  });
+  const source = new EventSource(`${BACKEND_URL}/stream?${params}`);
+
+  source.addEventListener('conditions', (event) => {
+    try {
+      onConditions(JSON.parse(event.data));
+    } catch (error) {
+      console.error("Failed to parse live conditions:", error);
+    }
+  });
+
+  return () => source.close();
+};
+
+/**
+ * Fetch historical air quality data for a specific location
+ * @param {Object} location - The location coordinates {latitude, longitude}
+ * @param {number} hours - Number of hours back to request (up to 720)
+ * @param {number} [maxPoints] - Optional point budget; the backend downsamples longer ranges
+ * @returns {Promise<Object>} - Historical air quality data
  */
-export const fetchForecastData = async (location) => {
+export const fetchHistoricalData = async (location, hours = 24, maxPoints) => {
   try {
-    const response = await fetch(`${BACKEND_URL}/forecast`, {
+    const response = await fetch(`${BACKEND_URL}/history`, {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
+        'Accept': SERIES_ACCEPT,
       },
       body: JSON.stringify({
         location: {
           latitude: location.latitude,
           longitude: location.longitude
-        }
+        },
+        hours: hours,
+        maxPoints: maxPoints
       }),
     });
-
+    
     if (!response.ok) {
       throw new Error(`Error: ${response.status}`);
     }
+    
+    return await readSeriesResponse(response);
+  } catch (error) {
+    console.error("Failed to fetch historical data:", error);
+    throw error;
+  }
+};
 
-    const json = await response.json();
-    if (!json.hourlyForecasts || !Array.isArray(json.hourlyForecasts) || !json.hourlyForecasts.length) {
-      console.warn("Missing / empty hourlyForecasts", json);
-      return null;
+/**
+ * Stream a multi-day forecast (up to 96 hours) as NDJSON.
+ * onHours is called with each batch of hourly forecasts as it arrives, in time order,
+ * so the first day can render while later days are still loading. Its second argument is
+ * null while every window so far was fresh, else {stale, fetchedAt, ageSeconds} for the
+ * oldest one, taken from the marker lines the backend writes ahead of stale windows.
+ * @returns {Promise<Object>} - {hourlyForecasts, stale?, fetchedAt?, ageSeconds?} once the stream ends
+ */
+export const streamForecastData = async (location, hours = 96, onHours = () => {}) => {
+  const response = await fetch(`${BACKEND_URL}/forecast/stream`, {
+    method: 'POST',
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    body: JSON.stringify({
+      location: {
+        latitude: location.latitude,
+        longitude: location.longitude
+      },
+      hours: hours
+    }),
+  });
+
+  if (!response.ok || !response.body) {
+    throw new Error(`Error: ${response.status}`);
+  }
+
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  const all = [];
+  let stale = null;
+  let buffer = '';
+
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+
+    const lines = buffer.split('\n');
+    buffer = lines.pop();
+    const batch = [];
+    for (const line of lines) {
+      if (!line.trim()) continue;
+      const entry = JSON.parse(line);
+      if (entry.error) throw new Error(entry.error);
+      if (entry.stale) {
+        if (!stale || entry.ageSeconds > stale.ageSeconds) {
+          stale = { stale: true, fetchedAt: entry.fetchedAt, ageSeconds: entry.ageSeconds };
+        }
+        continue;
+      }
+      batch.push(entry);
+    }
+    if (batch.length) {
+      all.push(...batch);
+      onHours(batch, stale);
     }
-    return json;
-  } catch (e) {
-    console.warn("Forecast error:", e.message);
-    return null;
   }
+
+  return { hourlyForecasts: all, ...stale };
 };
 
 /**
@@ -0,0 +1,158 @@
+/**
+ * Decoder for the backend's compact columnar series format (history / forecast).
+ * See SeriesEncoder.java for the layout. Columns are read straight off a DataView and the
+ * result is rebuilt in the usual JSON shape, so charts work unchanged; the raw columns are
+ * also returned under `columns` for callers that want typed arrays.
+ */
+
+export const SERIES_MEDIA_TYPE = 'application/vnd.breathesmart.aq-series';
+
+const NONE = 0xffff;
+const MISSING_AQI = -32768;
+
+/**
+ * Decode an ArrayBuffer in the series format.
+ * @param {ArrayBuffer} buffer
+ * @returns {Object} - {hoursInfo | hourlyForecasts, regionCode?, totalHours?, stale?, fetchedAt?, ageSeconds?, columns}
+ */
+export const decodeSeries = (buffer) => {
+  const view = new DataView(buffer);
+  let offset = 0;
+
+  const magic = String.fromCharCode(view.getUint8(0), view.getUint8(1), view.getUint8(2));
+  const version = view.getUint8(3);
+  if (magic !== 'AQS' || version < 1 || version > 2) {
+    throw new Error(`Unsupported series format ${magic} v${version}`);
+  }
+  offset = 4;
+
+  const u8 = () => { const v = view.getUint8(offset); offset += 1; return v; };
+  const u16 = () => { const v = view.getUint16(offset); offset += 2; return v; };
+  const i32 = () => { const v = view.getInt32(offset); offset += 4; return v; };
+
+  const n = view.getUint32(offset); offset += 4;
+  const listNameId = u16();
+  const regionCodeId = u16();
+  const totalHours = i32();
+  // Version 2 adds the stale-serving markers
+  const stale = version >= 2 ? u8() === 1 : false;
+  const fetchedAtId = version >= 2 ? u16() : NONE;
+  const ageSeconds = version >= 2 ? i32() : -1;
+
+  const textDecoder = new TextDecoder();
+  const dictionary = new Array(u16());
+  for (let i = 0; i < dictionary.length; i++) {
+    const length = u16();
+    dictionary[i] = textDecoder.decode(new Uint8Array(buffer, offset, length));
+    offset += length;
+  }
+  const text = (id) => (id === NONE ? undefined : dictionary[id]);
+
+  const epochSeconds = new Float64Array(n);
+  let time = Number(view.getBigInt64(offset)); offset += 8;
+  for (let i = 0; i < n; i++) {
+    time += i32();
+    epochSeconds[i] = time;
+  }
+
+  const readU16Column = () => {
+    const column = new Uint16Array(n);
+    for (let i = 0; i < n; i++) column[i] = u16();
+    return column;
+  };
+
+  const indexes = [];
+  for (let c = u8(); c > 0; c--) {
+    const code = text(u16());
+    const displayName = text(u16());
+    const aqi = new Int16Array(n);
+    for (let i = 0; i < n; i++) { aqi[i] = view.getInt16(offset); offset += 2; }
+    const category = readU16Column();
+    const dominantPollutant = readU16Column();
+    const rgb = new Uint8Array(buffer.slice(offset, offset + n * 3));
+    offset += n * 3;
+    indexes.push({ code, displayName, aqi, category, dominantPollutant, rgb });
+  }
+
+  const pollutants = [];
+  for (let c = u8(); c > 0; c--) {
+    const code = text(u16());
+    const displayName = text(u16());
+    const fullName = text(u16());
+    const units = text(u16());
+    const values = new Float32Array(n);
+    for (let i = 0; i < n; i++) { values[i] = view.getFloat32(offset); offset += 4; }
+    pollutants.push({ code, displayName, fullName, units, values });
+  }
+
+  const health = [];
+  for (let c = u8(); c > 0; c--) {
+    health.push({ group: text(u16()), texts: readU16Column() });
+  }
+
+  const hours = new Array(n);
+  for (let i = 0; i < n; i++) {
+    const hour = { dateTime: new Date(epochSeconds[i] * 1000).toISOString().replace('.000Z', 'Z') };
+
+    hour.indexes = [];
+    for (const index of indexes) {
+      if (index.aqi[i] === MISSING_AQI) continue;
+      hour.indexes.push({
+        code: index.code,
+        displayName: index.displayName,
+        aqi: index.aqi[i],
+        aqiDisplay: String(index.aqi[i]),
+        color: {
+          red: index.rgb[i * 3] / 255,
+          green: index.rgb[i * 3 + 1] / 255,
+          blue: index.rgb[i * 3 + 2] / 255
+        },
+        category: text(index.category[i]),
+        dominantPollutant: text(index.dominantPollutant[i])
+      });
+    }
+
+    if (pollutants.length) {
+      hour.pollutants = [];
+      for (const pollutant of pollutants) {
+        if (Number.isNaN(pollutant.values[i])) continue;
+        hour.pollutants.push({
+          code: pollutant.code,
+          displayName: pollutant.displayName,
+          fullName: pollutant.fullName,
+          concentration: { value: pollutant.values[i], units: pollutant.units }
+        });
+      }
+    }
+
+    if (health.length) {
+      hour.healthRecommendations = {};
+      for (const { group, texts } of health) {
+        if (texts[i] !== NONE) hour.healthRecommendations[group] = dictionary[texts[i]];
+      }
+    }
+
+    hours[i] = hour;
+  }
+
+  const result = { [text(listNameId)]: hours, columns: { epochSeconds, indexes, pollutants } };
+  if (regionCodeId !== NONE) result.regionCode = text(regionCodeId);
+  if (totalHours >= 0) result.totalHours = totalHours;
+  if (stale) {
+    result.stale = true;
+    result.fetchedAt = text(fetchedAtId);
+    if (ageSeconds >= 0) result.ageSeconds = ageSeconds;
+  }
+  return result;
+};
+
+/**
+ * Parse a fetch Response as either the compact series format or JSON, by its Content-Type.
+ */
+export const readSeriesResponse = async (response) => {
+  const contentType = response.headers.get('Content-Type') || '';
+  if (contentType.startsWith(SERIES_MEDIA_TYPE)) {
+    return decodeSeries(await response.arrayBuffer());
+  }
+  return await response.json();
+};